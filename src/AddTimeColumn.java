@@ -1,40 +1,37 @@
 package src;
 
 import java.sql.Connection;
-import java.sql.Statement;
+import java.util.List;
 
+/**
+ * Manual schema upgrade tool. The time_added column is now part of the
+ * versioned migrations in {@link SchemaMigrator}; this entry point simply
+ * runs any pending migrations and reports the resulting schema version.
+ */
 public class AddTimeColumn {
     public static void main(String[] args) {
-        try (Connection conn = DatabaseConnection.getConnection();
-             Statement stmt = conn.createStatement()) {
+        try (Connection conn = DatabaseConnection.getConnection()) {
             
             System.out.println("Connected to database...");
             
-            // Add time_added column
-            try {
-                stmt.execute("ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS time_added TIME");
-                System.out.println("✓ Successfully added time_added column to duplicator table");
-            } catch (Exception e) {
-                System.out.println("✗ Could not add time_added column: " + e.getMessage());
-            }
-            
-            // Verify column exists
-            var rs = stmt.executeQuery(
-                "SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.COLUMNS " +
-                "WHERE TABLE_NAME = 'DUPLICATOR' AND COLUMN_NAME = 'TIME_ADDED'"
-            );
-            
-            if (rs.next()) {
-                System.out.println("✓ time_added column verified in database");
+            // getConnection() already migrates; run again in case it could not finish
+            List<Integer> applied = SchemaMigrator.migrate(conn);
+            if (applied.isEmpty()) {
+                System.out.println("✓ Schema already current");
             } else {
-                System.out.println("✗ time_added column NOT found in database");
+                System.out.println("✓ Applied migrations " + applied);
             }
             
+            System.out.println("✓ Schema version " + SchemaMigrator.getCurrentVersion(conn)
+                + " (latest " + SchemaMigrator.getLatestVersion() + ")");
+            
             System.out.println("\nDone!");
             
         } catch (Exception e) {
             System.err.println("Error: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            DatabaseConnection.closeConnection();
         }
     }
 }
@@ -6,8 +6,10 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
@@ -27,6 +29,12 @@ public class AppConfig {
     private static final String KEY_DEFAULT_PARENT = "key.default.parent";
     private static final String KEY_DEFAULT_CHILD_PREFIX = "key.default.child.";
 
+    // Saved searches: the list of names, then one property per criterion under search.saved.<name>.
+    private static final String SAVED_SEARCHES_KEY = "search.saved";
+    private static final String SAVED_SEARCH_PREFIX = "search.saved.";
+    private static final String[] SAVED_SEARCH_FIELDS =
+        {"field", "match", "text", "category", "type", "purpose", "service", "payment", "lastDays"};
+
     private static Properties properties;
 
     static {
@@ -245,6 +253,20 @@ public class AppConfig {
         saveProperties();
     }
 
+    /**
+     * Parent category of every child key type, keyed by the child in lower
+     * case; a child listed under several parents maps to the first.
+     */
+    public static Map<String, String> getParentByChild() {
+        Map<String, String> parents = new LinkedHashMap<>();
+        for (String parent : getParentCategories()) {
+            for (String child : getChildCategories(parent)) {
+                parents.putIfAbsent(child.toLowerCase(Locale.ROOT), parent);
+            }
+        }
+        return parents;
+    }
+
     public static String findParentForChild(String child) {
         if (child == null || child.trim().isEmpty()) return null;
         for (String parent : getParentCategories()) {
@@ -258,6 +280,71 @@ public class AppConfig {
         return null;
     }
 
+    // Saved Search Methods
+
+    public static List<SavedSearch> getSavedSearches() {
+        List<SavedSearch> searches = new ArrayList<>();
+        for (String name : splitList(properties.getProperty(SAVED_SEARCHES_KEY, ""))) {
+            String prefix = SAVED_SEARCH_PREFIX + name + ".";
+            int lastDays;
+            try {
+                lastDays = Integer.parseInt(properties.getProperty(prefix + "lastDays", "0").trim());
+            } catch (NumberFormatException e) {
+                lastDays = 0;
+            }
+            searches.add(new SavedSearch(name,
+                properties.getProperty(prefix + "field", "All Fields"),
+                properties.getProperty(prefix + "match", "Contains"),
+                properties.getProperty(prefix + "text", ""),
+                properties.getProperty(prefix + "category", "Any"),
+                properties.getProperty(prefix + "type", "Any"),
+                properties.getProperty(prefix + "purpose", "Any"),
+                properties.getProperty(prefix + "service", "Any"),
+                properties.getProperty(prefix + "payment", "Any"),
+                lastDays));
+        }
+        return searches;
+    }
+
+    /**
+     * Add the search, replacing a saved search with the same name. Commas are
+     * not allowed in names (the list is comma separated) and become spaces.
+     */
+    public static SavedSearch saveSearch(SavedSearch search) {
+        String name = search.getName().replace(',', ' ').trim();
+        SavedSearch stored = new SavedSearch(name, search.getSearchField(), search.getMatchMode(),
+            search.getSearchText(), search.getCategory(), search.getKeyType(), search.getPurpose(),
+            search.getServiceType(), search.getPayment(), search.getLastDays());
+
+        List<String> names = splitList(properties.getProperty(SAVED_SEARCHES_KEY, ""));
+        if (!names.contains(name)) {
+            names.add(name);
+        }
+        String prefix = SAVED_SEARCH_PREFIX + name + ".";
+        properties.setProperty(SAVED_SEARCHES_KEY, String.join(",", names));
+        properties.setProperty(prefix + "field", stored.getSearchField());
+        properties.setProperty(prefix + "match", stored.getMatchMode());
+        properties.setProperty(prefix + "text", stored.getSearchText());
+        properties.setProperty(prefix + "category", stored.getCategory());
+        properties.setProperty(prefix + "type", stored.getKeyType());
+        properties.setProperty(prefix + "purpose", stored.getPurpose());
+        properties.setProperty(prefix + "service", stored.getServiceType());
+        properties.setProperty(prefix + "payment", stored.getPayment());
+        properties.setProperty(prefix + "lastDays", Integer.toString(stored.getLastDays()));
+        saveProperties();
+        return stored;
+    }
+
+    public static void deleteSavedSearch(String name) {
+        List<String> names = splitList(properties.getProperty(SAVED_SEARCHES_KEY, ""));
+        names.remove(name);
+        properties.setProperty(SAVED_SEARCHES_KEY, String.join(",", names));
+        for (String field : SAVED_SEARCH_FIELDS) {
+            properties.remove(SAVED_SEARCH_PREFIX + name + "." + field);
+        }
+        saveProperties();
+    }
+
     private static List<String> splitList(String val) {
         List<String> list = new ArrayList<>();
         if (val != null && !val.trim().isEmpty()) {
@@ -283,6 +370,35 @@ public class AppConfig {
         return properties.getProperty("images.directory");
     }
 
+    /**
+     * Directory for the record photo thumbnails: "thumbnails" beside the
+     * images directory, so it stays out of the images folder that backups
+     * and users browse.
+     */
+    public static String getThumbnailsDirectory() {
+        File parent = new File(getImagesDirectory()).getAbsoluteFile().getParentFile();
+        return parent != null ? new File(parent, "thumbnails").getPath()
+            : new File(getImagesDirectory(), "thumbnails").getPath();
+    }
+
+    /**
+     * JPEG quality (percent) that saved photos are recompressed to in the
+     * background, or 0 to keep them as captured.
+     */
+    public static int getPhotoQuality() {
+        try {
+            int quality = Integer.parseInt(properties.getProperty("images.quality", "0").trim());
+            return quality >= 10 && quality <= 100 ? quality : 0;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    public static void setPhotoQuality(int quality) {
+        properties.setProperty("images.quality", Integer.toString(quality));
+        saveProperties();
+    }
+
     public static void setImagesDirectory(String directory) {
         properties.setProperty("images.directory", directory);
         
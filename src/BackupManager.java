@@ -23,7 +23,6 @@ import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
@@ -129,13 +128,10 @@ public final class BackupManager {
             boolean previousAutoCommit = conn.getAutoCommit();
             conn.setAutoCommit(false);
 
-            String insertSql = hasTimeColumn
-                ? "INSERT INTO duplicator (name, phone_number, id_no, vehicle_no, key_no, key_type, purpose, date_added, time_added, remarks, quantity, amount, image_path) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"
-                : "INSERT INTO duplicator (name, phone_number, id_no, vehicle_no, key_no, key_type, purpose, date_added, remarks, quantity, amount, image_path) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-
             Map<String, String> restoredImagePaths = new LinkedHashMap<>();
+            List<Duplicator> pendingInserts = new ArrayList<>();
 
-            try (PreparedStatement insertStmt = conn.prepareStatement(insertSql)) {
+            try {
                 for (BackupRecord record : orderedUniqueRecords) {
                     if (existingFingerprints.contains(record.fingerprint)) {
                         skippedRecords++;
@@ -150,14 +146,16 @@ public final class BackupManager {
                         restoredImageCount
                     );
 
-                    bindInsertStatement(insertStmt, record, restoredImagePath, hasTimeColumn);
-                    insertStmt.executeUpdate();
-
+                    pendingInserts.add(toDuplicator(record, restoredImagePath, hasTimeColumn));
                     existingFingerprints.add(record.fingerprint);
-                    insertedRecords++;
                 }
 
+                insertedRecords = DuplicatorRepository.insertAll(conn, pendingInserts, DatabaseConnection.getBatchSize());
                 conn.commit();
+                if (insertedRecords > 0) {
+                    QueryResultCache.recordsChanged(pendingInserts);
+                    RecordCache.recordsChanged();
+                }
             } catch (Exception ex) {
                 conn.rollback();
                 if (ex instanceof IOException) {
@@ -587,55 +585,22 @@ public final class BackupManager {
         out.write(payloadHash);
     }
 
-    private static void bindInsertStatement(
-        PreparedStatement stmt,
-        BackupRecord record,
-        String imagePath,
-        boolean hasTimeColumn
-    ) throws SQLException {
-        stmt.clearParameters();
-
-        stmt.setString(1, required(record.name));
-        stmt.setString(2, required(record.phoneNumber));
-        stmt.setString(3, required(record.idNo));
-
-        setNullableString(stmt, 4, record.vehicleNo);
-        setNullableString(stmt, 5, record.keyNo);
-        setNullableString(stmt, 6, record.keyType);
-        setNullableString(stmt, 7, record.purpose);
-
-        java.sql.Date sqlDate = parseDate(record.dateAdded);
-
-        if (hasTimeColumn) {
-            if (sqlDate == null) {
-                stmt.setNull(8, Types.DATE);
-            } else {
-                stmt.setDate(8, sqlDate);
-            }
-
-            java.sql.Time sqlTime = parseTime(record.timeAdded);
-            if (sqlTime == null) {
-                stmt.setNull(9, Types.TIME);
-            } else {
-                stmt.setTime(9, sqlTime);
-            }
-
-            setNullableString(stmt, 10, record.remarks);
-            stmt.setInt(11, record.quantity);
-            stmt.setBigDecimal(12, BigDecimal.valueOf(record.amount).setScale(2, RoundingMode.HALF_UP));
-            setNullableString(stmt, 13, imagePath);
-        } else {
-            if (sqlDate == null) {
-                stmt.setNull(8, Types.DATE);
-            } else {
-                stmt.setDate(8, sqlDate);
-            }
-
-            setNullableString(stmt, 9, record.remarks);
-            stmt.setInt(10, record.quantity);
-            stmt.setBigDecimal(11, BigDecimal.valueOf(record.amount).setScale(2, RoundingMode.HALF_UP));
-            setNullableString(stmt, 12, imagePath);
-        }
+    private static Duplicator toDuplicator(BackupRecord record, String imagePath, boolean hasTimeColumn) {
+        Duplicator duplicator = new Duplicator();
+        duplicator.setName(required(record.name));
+        duplicator.setPhoneNumber(required(record.phoneNumber));
+        duplicator.setIdNo(required(record.idNo));
+        duplicator.setVehicleNo(record.vehicleNo);
+        duplicator.setKeyNo(record.keyNo);
+        duplicator.setKeyType(record.keyType);
+        duplicator.setPurpose(record.purpose);
+        duplicator.setDateAdded(parseDate(record.dateAdded));
+        duplicator.setTimeAdded(hasTimeColumn ? parseTime(record.timeAdded) : null);
+        duplicator.setRemarks(record.remarks);
+        duplicator.setQuantity(record.quantity);
+        duplicator.setAmount(BigDecimal.valueOf(record.amount).setScale(2, RoundingMode.HALF_UP).doubleValue());
+        duplicator.setImagePath(imagePath);
+        return duplicator;
     }
 
     private static String ensureImagePresent(
@@ -773,14 +738,6 @@ public final class BackupManager {
         }
     }
 
-    private static void setNullableString(PreparedStatement stmt, int index, String value) throws SQLException {
-        if (isBlank(value)) {
-            stmt.setNull(index, Types.VARCHAR);
-        } else {
-            stmt.setString(index, value.trim());
-        }
-    }
-
     private static java.sql.Date parseDate(String value) {
         if (isBlank(value)) {
             return null;
@@ -0,0 +1,527 @@
+package src;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * Small bounded JDBC connection pool used by {@link DatabaseConnection}.
+ * Callers receive a proxy connection; calling close() on it returns the
+ * physical connection to the pool instead of closing the H2 file.
+ */
+public final class ConnectionPool {
+    private static final long VALIDATION_INTERVAL_MILLIS = 30_000L;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final int STATEMENT_CACHE_SIZE = 32;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int maxSize;
+    private final int minIdle;
+    private final long leaseTimeoutMillis;
+    private final long idleTimeoutMillis;
+
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Timer evictionTimer;
+    private int openConnections;
+    private int leasedConnections;
+    private boolean shutdown;
+
+    // Metrics
+    private long leaseCount;
+    private long createdCount;
+    private long discardedCount;
+    private long evictedCount;
+    private long validationFailureCount;
+    private long waitTimeoutCount;
+    private long totalWaitNanos;
+    private long statementCacheHits;
+    private long statementCacheMisses;
+
+    public ConnectionPool(String url, String username, String password,
+                          int maxSize, int minIdle, long leaseTimeoutMillis, long idleTimeoutMillis) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.maxSize = Math.max(1, maxSize);
+        this.minIdle = Math.max(0, Math.min(minIdle, this.maxSize));
+        this.leaseTimeoutMillis = Math.max(0L, leaseTimeoutMillis);
+        this.idleTimeoutMillis = Math.max(0L, idleTimeoutMillis);
+
+        this.evictionTimer = new Timer("KeyBase-PoolEvictor", true);
+        if (this.idleTimeoutMillis > 0) {
+            long period = Math.max(1_000L, this.idleTimeoutMillis / 2);
+            evictionTimer.schedule(new TimerTask() {
+                @Override
+                public void run() {
+                    evictIdleConnections();
+                }
+            }, period, period);
+        }
+    }
+
+    /**
+     * Lease a connection from the pool, opening a new physical connection if
+     * the pool has spare capacity, or waiting up to the lease timeout otherwise.
+     */
+    public Connection lease() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + leaseTimeoutMillis * 1_000_000L;
+
+        while (true) {
+            PooledConnection candidate = null;
+            boolean createNew = false;
+
+            synchronized (this) {
+                while (true) {
+                    if (shutdown) {
+                        throw new SQLException("Connection pool has been shut down.");
+                    }
+                    if (!idle.isEmpty()) {
+                        candidate = idle.pollFirst();
+                        break;
+                    }
+                    if (openConnections < maxSize) {
+                        openConnections++;
+                        createNew = true;
+                        break;
+                    }
+
+                    long remainingNanos = deadline - System.nanoTime();
+                    if (remainingNanos <= 0) {
+                        waitTimeoutCount++;
+                        throw new SQLException("Timed out after " + leaseTimeoutMillis
+                            + " ms waiting for a database connection (pool size " + maxSize + ").");
+                    }
+                    try {
+                        long waitMillis = Math.max(1L, remainingNanos / 1_000_000L);
+                        wait(waitMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Interrupted while waiting for a database connection.", e);
+                    }
+                }
+            }
+
+            if (createNew) {
+                Connection physical;
+                try {
+                    physical = DriverManager.getConnection(url, username, password);
+                } catch (SQLException | RuntimeException e) {
+                    synchronized (this) {
+                        openConnections--;
+                        notifyAll();
+                    }
+                    throw e;
+                }
+                candidate = new PooledConnection(physical);
+                synchronized (this) {
+                    createdCount++;
+                }
+            } else if (!validate(candidate)) {
+                discard(candidate);
+                synchronized (this) {
+                    validationFailureCount++;
+                }
+                continue;
+            }
+
+            synchronized (this) {
+                leasedConnections++;
+                leaseCount++;
+                totalWaitNanos += System.nanoTime() - start;
+            }
+            return candidate.newLease();
+        }
+    }
+
+    private boolean validate(PooledConnection pooled) {
+        long idleFor = System.currentTimeMillis() - pooled.lastReturnedAt;
+        try {
+            if (pooled.physical.isClosed()) {
+                return false;
+            }
+            if (idleFor < VALIDATION_INTERVAL_MILLIS) {
+                return true;
+            }
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        boolean healthy = !pooled.broken;
+        try {
+            if (healthy && pooled.physical.isClosed()) {
+                healthy = false;
+            }
+            if (healthy && !pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            if (healthy) {
+                pooled.physical.clearWarnings();
+            }
+        } catch (SQLException e) {
+            healthy = false;
+        }
+
+        synchronized (this) {
+            leasedConnections--;
+            if (healthy && !shutdown) {
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                idle.addFirst(pooled);
+                notifyAll();
+                return;
+            }
+        }
+        discard(pooled);
+    }
+
+    private void discard(PooledConnection pooled) {
+        closeQuietly(pooled.physical);
+        synchronized (this) {
+            openConnections--;
+            discardedCount++;
+            notifyAll();
+        }
+    }
+
+    private void evictIdleConnections() {
+        List<PooledConnection> expired = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            // Oldest returned connections sit at the tail of the deque.
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && idle.size() > minIdle) {
+                PooledConnection pooled = it.next();
+                if (now - pooled.lastReturnedAt >= idleTimeoutMillis) {
+                    it.remove();
+                    expired.add(pooled);
+                }
+            }
+        }
+        for (PooledConnection pooled : expired) {
+            discard(pooled);
+            synchronized (this) {
+                evictedCount++;
+            }
+        }
+    }
+
+    /**
+     * Close every idle connection and refuse further leases. Connections that
+     * are still leased are closed when their borrower returns them.
+     */
+    public void shutdown() {
+        List<PooledConnection> toClose;
+        synchronized (this) {
+            if (shutdown) {
+                return;
+            }
+            shutdown = true;
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+            notifyAll();
+        }
+        evictionTimer.cancel();
+        for (PooledConnection pooled : toClose) {
+            discard(pooled);
+        }
+    }
+
+    public synchronized boolean isShutdown() {
+        return shutdown;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(maxSize, openConnections, leasedConnections, idle.size(),
+            leaseCount, createdCount, discardedCount, evictedCount,
+            validationFailureCount, waitTimeoutCount, totalWaitNanos,
+            statementCacheHits, statementCacheMisses);
+    }
+
+    /**
+     * Return a prepared statement cached on the physical connection behind
+     * {@code conn}. The statement outlives the lease, so callers must not close
+     * it; they only close the ResultSets they obtain from it. Connections that
+     * did not come from a pool get a plain statement that closes with them.
+     */
+    public static PreparedStatement prepareCached(Connection conn, String sql, int autoGeneratedKeys) throws SQLException {
+        if (Proxy.isProxyClass(conn.getClass())) {
+            InvocationHandler handler = Proxy.getInvocationHandler(conn);
+            if (handler instanceof ConnectionPool.LeaseHandler) {
+                return ((ConnectionPool.LeaseHandler) handler).prepareCached(sql, autoGeneratedKeys);
+            }
+        }
+        return conn.prepareStatement(sql, autoGeneratedKeys);
+    }
+
+    public static PreparedStatement prepareCached(Connection conn, String sql) throws SQLException {
+        return prepareCached(conn, sql, Statement.NO_GENERATED_KEYS);
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        if (closeable == null) {
+            return;
+        }
+        try {
+            closeable.close();
+        } catch (Exception ignored) {
+            // nothing useful to do while tearing down
+        }
+    }
+
+    private static boolean isConnectionFailure(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && state.startsWith("08");
+    }
+
+    /** One physical connection owned by the pool. */
+    private final class PooledConnection {
+        private final Connection physical;
+        private final Map<String, PreparedStatement> statementCache =
+            new LinkedHashMap<String, PreparedStatement>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                    if (size() > STATEMENT_CACHE_SIZE) {
+                        closeQuietly(eldest.getValue());
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        private long lastReturnedAt;
+        private boolean broken;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.lastReturnedAt = System.currentTimeMillis();
+        }
+
+        private Connection newLease() {
+            return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                new LeaseHandler(this));
+        }
+    }
+
+    /**
+     * Handler behind each leased proxy. Tracks statements opened through the
+     * lease so they are closed when the connection goes back to the pool.
+     */
+    private final class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final List<Statement> statements = new ArrayList<>();
+        private boolean returned;
+
+        private LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    returnToPool();
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + (returned ? ", returned" : "") + "]";
+                default:
+                    break;
+            }
+
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool.");
+            }
+            // The physical connection must not escape the lease, or closing it would bypass returnToPool
+            if ("isWrapperFor".equals(name)) {
+                return ((Class<?>) args[0]).isInstance(proxy);
+            }
+            if ("unwrap".equals(name)) {
+                Class<?> iface = (Class<?>) args[0];
+                if (iface.isInstance(proxy)) {
+                    return proxy;
+                }
+                throw new SQLException("A pooled connection cannot be unwrapped to " + iface.getName() + ".");
+            }
+
+            try {
+                Object result = method.invoke(pooled.physical, args);
+                if (result instanceof Statement) {
+                    statements.add((Statement) result);
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException && isConnectionFailure((SQLException) cause)) {
+                    pooled.broken = true;
+                }
+                throw cause;
+            }
+        }
+
+        private PreparedStatement prepareCached(String sql, int autoGeneratedKeys) throws SQLException {
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool.");
+            }
+            String key = autoGeneratedKeys + ":" + sql;
+            PreparedStatement cached = pooled.statementCache.get(key);
+            if (cached != null && !cached.isClosed()) {
+                synchronized (ConnectionPool.this) {
+                    statementCacheHits++;
+                }
+                cached.clearParameters();
+                return cached;
+            }
+
+            try {
+                cached = pooled.physical.prepareStatement(sql, autoGeneratedKeys);
+            } catch (SQLException e) {
+                if (isConnectionFailure(e)) {
+                    pooled.broken = true;
+                }
+                throw e;
+            }
+            pooled.statementCache.put(key, cached);
+            synchronized (ConnectionPool.this) {
+                statementCacheMisses++;
+            }
+            return cached;
+        }
+
+        private void returnToPool() {
+            if (returned) {
+                return;
+            }
+            returned = true;
+            for (Statement statement : statements) {
+                closeQuietly(statement);
+            }
+            statements.clear();
+            release(pooled);
+        }
+    }
+
+    /** Immutable snapshot of pool counters. */
+    public static final class Stats {
+        private final int maxSize;
+        private final int openConnections;
+        private final int leasedConnections;
+        private final int idleConnections;
+        private final long leaseCount;
+        private final long createdCount;
+        private final long discardedCount;
+        private final long evictedCount;
+        private final long validationFailureCount;
+        private final long waitTimeoutCount;
+        private final long totalWaitNanos;
+        private final long statementCacheHits;
+        private final long statementCacheMisses;
+
+        private Stats(int maxSize, int openConnections, int leasedConnections, int idleConnections,
+                      long leaseCount, long createdCount, long discardedCount, long evictedCount,
+                      long validationFailureCount, long waitTimeoutCount, long totalWaitNanos,
+                      long statementCacheHits, long statementCacheMisses) {
+            this.maxSize = maxSize;
+            this.openConnections = openConnections;
+            this.leasedConnections = leasedConnections;
+            this.idleConnections = idleConnections;
+            this.leaseCount = leaseCount;
+            this.createdCount = createdCount;
+            this.discardedCount = discardedCount;
+            this.evictedCount = evictedCount;
+            this.validationFailureCount = validationFailureCount;
+            this.waitTimeoutCount = waitTimeoutCount;
+            this.totalWaitNanos = totalWaitNanos;
+            this.statementCacheHits = statementCacheHits;
+            this.statementCacheMisses = statementCacheMisses;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public int getOpenConnections() {
+            return openConnections;
+        }
+
+        public int getLeasedConnections() {
+            return leasedConnections;
+        }
+
+        public int getIdleConnections() {
+            return idleConnections;
+        }
+
+        public long getLeaseCount() {
+            return leaseCount;
+        }
+
+        public long getCreatedCount() {
+            return createdCount;
+        }
+
+        public long getDiscardedCount() {
+            return discardedCount;
+        }
+
+        public long getEvictedCount() {
+            return evictedCount;
+        }
+
+        public long getValidationFailureCount() {
+            return validationFailureCount;
+        }
+
+        public long getWaitTimeoutCount() {
+            return waitTimeoutCount;
+        }
+
+        public long getStatementCacheHits() {
+            return statementCacheHits;
+        }
+
+        public long getStatementCacheMisses() {
+            return statementCacheMisses;
+        }
+
+        public double getAverageWaitMillis() {
+            return leaseCount == 0 ? 0.0 : (totalWaitNanos / 1_000_000.0) / leaseCount;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "open=%d/%d leased=%d idle=%d leases=%d created=%d discarded=%d evicted=%d validationFailures=%d timeouts=%d avgWait=%.2fms stmtCache=%d/%d",
+                openConnections, maxSize, leasedConnections, idleConnections, leaseCount, createdCount,
+                discardedCount, evictedCount, validationFailureCount, waitTimeoutCount, getAverageWaitMillis(),
+                statementCacheHits, statementCacheHits + statementCacheMisses);
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package src;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.function.Consumer;
+import javax.swing.BorderFactory;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.DefaultListModel;
+import javax.swing.JLabel;
+import javax.swing.JList;
+import javax.swing.JPopupMenu;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.ListSelectionModel;
+import javax.swing.SwingUtilities;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+
+/**
+ * Returning-customer autofill for a phone or ID number field of the main
+ * form. While a number is typed, customers whose number starts with it are
+ * offered in a popup; once it matches a known customer, the popup lists that
+ * customer's earlier visits instead. Picking an entry (arrow keys and Enter,
+ * or a click) hands the record to the form to fill in.
+ *
+ * Lookups go to the phone/ID index of {@link RecordCache}, never to the
+ * database; until the cache has loaded the field behaves as a plain text
+ * field. EDT only.
+ */
+final class CustomerLookup {
+    /** Digits/letters typed before suggestions appear. */
+    static final int MIN_PREFIX = 3;
+    static final int MAX_SUGGESTIONS = 8;
+    static final int MAX_VISITS = 10;
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    private final JTextField field;
+    private final String column;
+    private final Consumer<Duplicator> onPick;
+    private final JPopupMenu popup = new JPopupMenu();
+    private final JLabel header = new JLabel();
+    private final DefaultListModel<Duplicator> listModel = new DefaultListModel<>();
+    private final JList<Duplicator> list = new JList<>(listModel);
+    private boolean showingVisits;
+    // Set while the form fills the field from a picked entry
+    private boolean picking;
+
+    private CustomerLookup(JTextField field, String column, Consumer<Duplicator> onPick) {
+        this.field = field;
+        this.column = column;
+        this.onPick = onPick;
+    }
+
+    /**
+     * Add autofill to the field, which holds the phone_number or id_no
+     * (column). Attach before the field's own key listeners so Enter picks
+     * the highlighted entry before they run.
+     */
+    static void attach(JTextField field, String column, Consumer<Duplicator> onPick) {
+        new CustomerLookup(field, column, onPick).install();
+    }
+
+    private void install() {
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setFocusable(false);
+        list.setFont(new Font("Arial", Font.PLAIN, 12));
+        list.setCellRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> l, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                super.getListCellRendererComponent(l, value, index, isSelected, cellHasFocus);
+                setText(describe((Duplicator) value));
+                setBorder(BorderFactory.createEmptyBorder(3, 6, 3, 6));
+                return this;
+            }
+        });
+        list.addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = list.locationToIndex(e.getPoint());
+                if (index >= 0) {
+                    pick(listModel.get(index));
+                }
+            }
+        });
+
+        header.setFont(new Font("Arial", Font.BOLD, 11));
+        header.setForeground(new Color(60, 62, 128));
+        header.setBorder(BorderFactory.createEmptyBorder(3, 6, 3, 6));
+        JScrollPane scroll = new JScrollPane(list);
+        scroll.setBorder(BorderFactory.createEmptyBorder());
+        popup.setFocusable(false);
+        popup.setBorder(BorderFactory.createLineBorder(new Color(109, 193, 210), 1));
+        popup.add(header);
+        popup.add(scroll);
+
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                scheduleUpdate();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                scheduleUpdate();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
+        field.addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                if (!popup.isVisible()) {
+                    return;
+                }
+                int selected = list.getSelectedIndex();
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_DOWN:
+                        list.setSelectedIndex(Math.min(selected + 1, listModel.size() - 1));
+                        list.ensureIndexIsVisible(list.getSelectedIndex());
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_UP:
+                        list.setSelectedIndex(Math.max(selected - 1, 0));
+                        list.ensureIndexIsVisible(list.getSelectedIndex());
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_ENTER:
+                        if (selected >= 0) {
+                            pick(listModel.get(selected));
+                        }
+                        popup.setVisible(false);
+                        break;
+                    case KeyEvent.VK_ESCAPE:
+                        popup.setVisible(false);
+                        e.consume();
+                        break;
+                    default:
+                        break;
+                }
+            }
+        });
+        field.addFocusListener(new FocusAdapter() {
+            @Override
+            public void focusLost(FocusEvent e) {
+                popup.setVisible(false);
+            }
+        });
+    }
+
+    private void scheduleUpdate() {
+        if (!picking) {
+            SwingUtilities.invokeLater(this::update);
+        }
+    }
+
+    private void update() {
+        String text = field.getText();
+        if (!field.isFocusOwner() || DuplicatorRepository.searchKey(text).length() < MIN_PREFIX) {
+            popup.setVisible(false);
+            return;
+        }
+        List<Duplicator> visits = RecordCache.findVisits(column, text, MAX_VISITS);
+        if (visits == null) {
+            return; // Cache still loading
+        }
+        showingVisits = !visits.isEmpty();
+        List<Duplicator> entries = showingVisits ? visits
+            : RecordCache.findByPrefix(column, text, MAX_SUGGESTIONS);
+        if (entries == null || entries.isEmpty()) {
+            popup.setVisible(false);
+            return;
+        }
+
+        header.setText(showingVisits
+            ? "Earlier visits of " + blankIfNull(visits.get(0).getName()) + " (" + visits.size()
+                + (visits.size() == MAX_VISITS ? "+" : "") + ")"
+            : "Returning customers");
+        listModel.clear();
+        for (Duplicator entry : entries) {
+            listModel.addElement(entry);
+        }
+        list.setVisibleRowCount(Math.min(entries.size(), MAX_SUGGESTIONS));
+        // Nothing pre-selected: a new customer's number often shares a prefix with
+        // known ones, and Enter must then keep its usual meaning
+        list.clearSelection();
+        // Re-show so the popup takes the height of the new list
+        popup.setVisible(false);
+        popup.setPopupSize(new Dimension(Math.max(field.getWidth(), 360), popup.getPreferredSize().height));
+        popup.show(field, 0, field.getHeight());
+    }
+
+    private void pick(Duplicator record) {
+        popup.setVisible(false);
+        picking = true;
+        try {
+            onPick.accept(record);
+        } finally {
+            picking = false;
+        }
+    }
+
+    private String describe(Duplicator d) {
+        String date = d.getDateAdded() != null
+            ? new java.sql.Date(d.getDateAdded().getTime()).toLocalDate().format(DATE_FORMAT) : "no date";
+        if (showingVisits) {
+            return date + "  ·  " + blankIfNull(d.getKeyType()) + "  ·  " + blankIfNull(d.getKeyNo())
+                + (isBlank(d.getVehicleNo()) ? "" : "  ·  " + d.getVehicleNo());
+        }
+        String number = "id_no".equals(column) ? d.getIdNo() : d.getPhoneNumber();
+        return blankIfNull(number) + "  ·  " + blankIfNull(d.getName()) + "  ·  last visit " + date;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static String blankIfNull(String value) {
+        return value == null ? "" : value;
+    }
+}
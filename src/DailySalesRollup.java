@@ -0,0 +1,178 @@
+package src;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import org.h2.api.Trigger;
+
+/**
+ * Keeps the daily_sales_rollup table (schema version 8) in step with
+ * duplicator. The table holds one row per date_added, key_type, purpose,
+ * service_type and quantity with the number of records and their total
+ * amount, so Metrics and Statistics read a few rows per day instead of every
+ * record.
+ *
+ * H2 fires this for each inserted, updated and deleted duplicator row inside
+ * the writing transaction, so every write path (including other PCs on the
+ * shared database) keeps the table current. Two writers may both add a row
+ * for a new group, and a later change then lands on either row, so one row
+ * of a group can fall to a count of zero or below while still carrying an
+ * amount. Readers always SUM over the table, and a row is only deleted once
+ * both its count and amount are zero, so the sums stay right.
+ */
+public final class DailySalesRollup implements Trigger {
+    static final String TABLE = "daily_sales_rollup";
+
+    static final String CREATE_TABLE_SQL =
+        "CREATE TABLE IF NOT EXISTS " + TABLE + " (" +
+        "date_added DATE, " +
+        "key_type VARCHAR(50), " +
+        "purpose VARCHAR(50), " +
+        "service_type VARCHAR(20), " +
+        "quantity INT, " +
+        "record_count INT NOT NULL, " +
+        "amount DECIMAL(14,2) NOT NULL)";
+    static final String CREATE_INDEX_SQL =
+        "CREATE INDEX IF NOT EXISTS idx_rollup_date ON " + TABLE + "(date_added)";
+    static final String BACKFILL_SQL =
+        "INSERT INTO " + TABLE + " (date_added, key_type, purpose, service_type, quantity, record_count, amount) " +
+        "SELECT date_added, key_type, purpose, service_type, quantity, COUNT(*), COALESCE(SUM(amount), 0) " +
+        "FROM duplicator GROUP BY date_added, key_type, purpose, service_type, quantity";
+    static final String CREATE_TRIGGER_SQL =
+        "CREATE TRIGGER IF NOT EXISTS trg_daily_sales_rollup AFTER INSERT, UPDATE, DELETE ON duplicator " +
+        "FOR EACH ROW CALL '" + DailySalesRollup.class.getName() + "'";
+
+    // date_added = ? lets H2 use idx_rollup_date; records without a date share one group
+    private static final String GROUP_WITH_DATE =
+        "date_added = ? AND key_type IS NOT DISTINCT FROM ? AND purpose IS NOT DISTINCT FROM ? " +
+        "AND service_type IS NOT DISTINCT FROM ? AND quantity IS NOT DISTINCT FROM ?";
+    private static final String GROUP_WITHOUT_DATE =
+        "date_added IS NULL AND key_type IS NOT DISTINCT FROM ? AND purpose IS NOT DISTINCT FROM ? " +
+        "AND service_type IS NOT DISTINCT FROM ? AND quantity IS NOT DISTINCT FROM ?";
+    private static final String ADD_SQL =
+        "UPDATE " + TABLE + " SET record_count = record_count + ?, amount = amount + ? WHERE ";
+    private static final String INSERT_SQL =
+        "INSERT INTO " + TABLE + " (date_added, key_type, purpose, service_type, quantity, record_count, amount) " +
+        "VALUES (?, ?, ?, ?, ?, 1, ?)";
+    private static final String DELETE_EMPTY_SQL =
+        "DELETE FROM " + TABLE + " WHERE record_count = 0 AND amount = 0 AND ";
+    private static final String COLUMNS_SQL =
+        "SELECT COLUMN_NAME, ORDINAL_POSITION FROM INFORMATION_SCHEMA.COLUMNS " +
+        "WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ?";
+
+    private static final String[] GROUP_COLUMNS = {"DATE_ADDED", "KEY_TYPE", "PURPOSE", "SERVICE_TYPE", "QUANTITY"};
+
+    // Positions of GROUP_COLUMNS and AMOUNT in the trigger's row arrays
+    private int[] groupIndexes;
+    private int amountIndex;
+
+    @Override
+    public void init(Connection conn, String schemaName, String triggerName, String tableName,
+                     boolean before, int type) throws SQLException {
+        Map<String, Integer> positions = new HashMap<>();
+        try (PreparedStatement ps = conn.prepareStatement(COLUMNS_SQL)) {
+            ps.setString(1, schemaName);
+            ps.setString(2, tableName);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    positions.put(rs.getString(1), rs.getInt(2) - 1);
+                }
+            }
+        }
+        groupIndexes = new int[GROUP_COLUMNS.length];
+        for (int i = 0; i < GROUP_COLUMNS.length; i++) {
+            groupIndexes[i] = position(positions, GROUP_COLUMNS[i]);
+        }
+        amountIndex = position(positions, "AMOUNT");
+    }
+
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        if (oldRow != null && newRow != null && sameGroup(oldRow, newRow)
+                && amount(oldRow).compareTo(amount(newRow)) == 0) {
+            return; // e.g. a name or phone correction
+        }
+        if (oldRow != null) {
+            remove(conn, oldRow);
+        }
+        if (newRow != null) {
+            add(conn, newRow);
+        }
+    }
+
+    private void add(Connection conn, Object[] row) throws SQLException {
+        if (update(conn, row, 1) > 0) {
+            return;
+        }
+        try (PreparedStatement ps = conn.prepareStatement(INSERT_SQL)) {
+            for (int i = 0; i < groupIndexes.length; i++) {
+                ps.setObject(i + 1, row[groupIndexes[i]]);
+            }
+            ps.setBigDecimal(groupIndexes.length + 1, amount(row));
+            ps.executeUpdate();
+        }
+    }
+
+    private void remove(Connection conn, Object[] row) throws SQLException {
+        update(conn, row, -1);
+        try (PreparedStatement ps = conn.prepareStatement(DELETE_EMPTY_SQL + groupCondition(row))) {
+            bindGroup(ps, 1, row);
+            ps.executeUpdate();
+        }
+    }
+
+    private int update(Connection conn, Object[] row, int sign) throws SQLException {
+        // One row only: when a group has duplicate rows, the change must be counted once
+        try (PreparedStatement ps = conn.prepareStatement(ADD_SQL + groupCondition(row) + " FETCH FIRST ROW ONLY")) {
+            ps.setInt(1, sign);
+            ps.setBigDecimal(2, sign > 0 ? amount(row) : amount(row).negate());
+            bindGroup(ps, 3, row);
+            return ps.executeUpdate();
+        }
+    }
+
+    private String groupCondition(Object[] row) {
+        return row[groupIndexes[0]] != null ? GROUP_WITH_DATE : GROUP_WITHOUT_DATE;
+    }
+
+    private void bindGroup(PreparedStatement ps, int first, Object[] row) throws SQLException {
+        int index = first;
+        for (int i = 0; i < groupIndexes.length; i++) {
+            Object value = row[groupIndexes[i]];
+            if (i == 0 && value == null) {
+                continue; // date_added IS NULL takes no parameter
+            }
+            ps.setObject(index++, value);
+        }
+    }
+
+    private boolean sameGroup(Object[] oldRow, Object[] newRow) {
+        for (int index : groupIndexes) {
+            if (!Objects.equals(oldRow[index], newRow[index])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private BigDecimal amount(Object[] row) {
+        Object value = row[amountIndex];
+        if (value == null) {
+            return BigDecimal.ZERO;
+        }
+        return value instanceof BigDecimal ? (BigDecimal) value : new BigDecimal(value.toString());
+    }
+
+    private static int position(Map<String, Integer> positions, String column) throws SQLException {
+        Integer position = positions.get(column);
+        if (position == null) {
+            throw new SQLException("duplicator has no " + column + " column for " + TABLE);
+        }
+        return position;
+    }
+}
@@ -9,21 +9,27 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.List;
 import java.util.Objects;
 import java.util.Properties;
 
 public class DatabaseConnection {
-    private static Connection connection = null;
+    private static ConnectionPool pool = null;
     private static String url;
     private static String username;
     private static String password;
     private static String driverClassName;
+    private static int poolMaxSize = 4;
+    private static int poolMinIdle = 1;
+    private static long poolLeaseTimeoutMillis = 10_000L;
+    private static long poolIdleTimeoutMillis = 300_000L;
+    private static int batchSize = 500;
     private static final String INIT_SCRIPT = "config/init_h2_database.sql";
     private static String lastAppliedCustomPath = "";
     private static boolean schemaChecked = false;
+    private static boolean schemaCheckInProgress = false;
 
     static {
         try {
@@ -72,6 +78,12 @@ public class DatabaseConnection {
             driverClassName = props.getProperty("db.driverClassName");
         }
 
+        poolMaxSize = parseIntProperty(props, "db.pool.maxSize", 4);
+        poolMinIdle = parseIntProperty(props, "db.pool.minIdle", 1);
+        poolLeaseTimeoutMillis = parseIntProperty(props, "db.pool.leaseTimeoutMs", 10_000);
+        poolIdleTimeoutMillis = parseIntProperty(props, "db.pool.idleTimeoutMs", 300_000);
+        batchSize = Math.max(1, parseIntProperty(props, "db.batch.size", 500));
+
         url = resolveJdbcUrl(url);
         ensureDataDirectory(url);
 
@@ -104,6 +116,19 @@ public class DatabaseConnection {
         }
     }
 
+    private static int parseIntProperty(Properties props, String key, int defaultValue) {
+        String value = props.getProperty(key);
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Invalid value for " + key + ": " + value + ". Using " + defaultValue + ".");
+            return defaultValue;
+        }
+    }
+
     private static String resolveJdbcUrl(String rawUrl) {
         String candidate = rawUrl == null ? "" : rawUrl.trim();
         candidate = expandDatabaseTokens(candidate);
@@ -227,7 +252,17 @@ public class DatabaseConnection {
         }
     }
 
-    public static synchronized Connection getConnection() throws SQLException {
+    /**
+     * Lease a pooled connection. Closing the returned connection hands it back
+     * to the pool, so callers should keep using try-with-resources.
+     */
+    public static Connection getConnection() throws SQLException {
+        Connection conn = obtainPool().lease();
+        ensureSchemaUpgrades(conn);
+        return conn;
+    }
+
+    private static synchronized ConnectionPool obtainPool() {
         String currentCustomPath = AppConfig.getCustomDatabasePath();
         if (!Objects.equals(currentCustomPath, lastAppliedCustomPath)) {
             closeConnection();
@@ -238,18 +273,42 @@ public class DatabaseConnection {
             }
         }
 
-        if (connection == null || connection.isClosed()) {
-            connection = DriverManager.getConnection(url, username, password);
-            ensureSchemaUpgrades(connection);
+        if (pool == null || pool.isShutdown()) {
+            pool = new ConnectionPool(url, username, password,
+                poolMaxSize, poolMinIdle, poolLeaseTimeoutMillis, poolIdleTimeoutMillis);
         }
-        return connection;
+        return pool;
+    }
+
+    /**
+     * Number of rows sent per JDBC batch by bulk inserts (db.batch.size).
+     */
+    public static int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Snapshot of the pool counters, or null if no connection has been requested yet.
+     */
+    public static synchronized ConnectionPool.Stats getPoolStats() {
+        return pool == null ? null : pool.getStats();
     }
 
     private static synchronized void ensureSchemaUpgrades(Connection conn) {
-        if (schemaChecked || conn == null) {
+        if (schemaChecked || schemaCheckInProgress || conn == null) {
             return;
         }
 
+        // The initializer below leases its own connection; don't re-run the check for it
+        schemaCheckInProgress = true;
+        try {
+            runSchemaUpgrades(conn);
+        } finally {
+            schemaCheckInProgress = false;
+        }
+    }
+
+    private static void runSchemaUpgrades(Connection conn) {
         try {
             java.sql.DatabaseMetaData meta = conn.getMetaData();
             try (java.sql.ResultSet tables = meta.getTables(null, null, "DUPLICATOR", null)) {
@@ -257,59 +316,45 @@ public class DatabaseConnection {
                     // Table not present yet: attempt to initialize schema using bundled SQL
                     System.out.println("DUPLICATOR table not found; attempting DB initialization...");
                     try {
-                        boolean ok = DatabaseInitializer.initializeDatabase();
-                        if (ok) {
-                            // attempt to re-check existence
-                            try (java.sql.ResultSet after = meta.getTables(null, null, "DUPLICATOR", null)) {
-                                if (after != null && after.next()) {
-                                    System.out.println("DUPLICATOR table created by initializer.");
-                                } else {
-                                    System.out.println("DUPLICATOR table still missing after initializer.");
-                                }
-                            } catch (SQLException ex) {
-                                // ignore
-                            }
-                        }
+                        DatabaseInitializer.initializeDatabase();
                     } catch (Throwable t) {
                         System.out.println("Database initialization attempt failed: " + t.getMessage());
                     }
-                    return;
+                    try (java.sql.ResultSet after = meta.getTables(null, null, "DUPLICATOR", null)) {
+                        if (after == null || !after.next()) {
+                            System.out.println("DUPLICATOR table still missing after initializer.");
+                            return;
+                        }
+                        System.out.println("DUPLICATOR table created by initializer.");
+                    }
                 }
             }
         } catch (SQLException e) {
             return; // Unable to check metadata, try again on next call
         }
 
-        final String[] alterations = {
-            "ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS key_type VARCHAR(50)",
-            "ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS id_no VARCHAR(50)",
-            "ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS remarks VARCHAR(500)",
-            "ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS quantity INT DEFAULT 1",
-            "ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS amount DECIMAL(10,2) DEFAULT 0.00",
-            "ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS image_path VARCHAR(255)",
-            "ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS purpose VARCHAR(50)",
-            "ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS date_added DATE"
-        };
-
-        for (String sql : alterations) {
-            try (Statement stmt = conn.createStatement()) {
-                stmt.execute(sql);
-            } catch (SQLException ignore) {
-                // Column already exists or other benign issue; move on to the next
+        try {
+            List<Integer> applied = SchemaMigrator.migrate(conn);
+            if (!applied.isEmpty()) {
+                System.out.println("Database schema upgraded to version " + SchemaMigrator.getLatestVersion() + ".");
             }
+            schemaChecked = true;
+        } catch (SQLException e) {
+            System.err.println("Schema migration failed: " + e.getMessage());
+            // Leave schemaChecked unset so the next connection retries
         }
-
-        schemaChecked = true;
     }
 
-    public static void closeConnection() {
-        if (connection != null) {
-            try {
-                connection.close();
-                connection = null;
-            } catch (SQLException e) {
-                System.err.println("Error closing database connection: " + e.getMessage());
-            }
+    /**
+     * Shut down the pool and close all idle connections. The next call to
+     * {@link #getConnection()} starts a fresh pool (e.g. after the database path changes).
+     */
+    public static synchronized void closeConnection() {
+        if (pool != null) {
+            System.out.println("Closing connection pool: " + pool.getStats());
+            pool.shutdown();
+            pool = null;
         }
+        DuplicatorRepository.resetSchemaProbe();
     }
 }
\ No newline at end of file
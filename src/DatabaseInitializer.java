@@ -96,36 +96,7 @@ public class DatabaseInitializer {
             
             System.out.println("Database tables created successfully.");
 
-            // Try to relax vehicle_no constraint on existing DBs (make nullable)
-            try {
-                stmt.execute("ALTER TABLE duplicator ALTER COLUMN vehicle_no DROP NOT NULL");
-                System.out.println("Altered column vehicle_no to allow NULLs (if it existed).");
-            } catch (Exception e) {
-                // ignore if the DB doesn't support this syntax or column not present
-                // try an alternative ALTER that some H2 versions accept
-                try {
-                    stmt.execute("ALTER TABLE duplicator ALTER COLUMN vehicle_no VARCHAR(20)");
-                    System.out.println("Altered column vehicle_no type to VARCHAR(20) (no-op for nullability).");
-                } catch (Exception ex) {
-                    System.out.println("Could not alter vehicle_no nullability: " + ex.getMessage());
-                }
-            }
-            
-            // Try to add purpose column if it doesn't exist (for existing databases)
-            try {
-                stmt.execute("ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS purpose VARCHAR(50)");
-                System.out.println("Added purpose column to duplicator table (if it didn't exist).");
-            } catch (Exception e) {
-                System.out.println("Could not add purpose column: " + e.getMessage());
-            }
-            
-            // Try to add time_added column if it doesn't exist (for existing databases)
-            try {
-                stmt.execute("ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS time_added TIME");
-                System.out.println("Added time_added column to duplicator table (if it didn't exist).");
-            } catch (Exception e) {
-                System.out.println("Could not add time_added column: " + e.getMessage());
-            }
+            // Column additions for older databases are applied by SchemaMigrator
             
             // After creating tables, optionally look for sample data script and execute it
             // Try multiple possible locations for the sample data file
@@ -9,6 +9,8 @@ import java.util.Date;
 import javax.swing.*;
 
 public class DeleteRecordsDialog extends JDialog {
+    static final String DELETE_BY_DATE_SQL = "DELETE FROM duplicator WHERE date_added BETWEEN ? AND ?";
+    
     private JDateChooser fromDateChooser;
     private JDateChooser toDateChooser;
     private JButton btnDelete;
@@ -162,7 +164,7 @@ public class DeleteRecordsDialog extends JDialog {
     }
     
     private int deleteRecordsByDateRange(Date fromDate, Date toDate) {
-        String sql = "DELETE FROM duplicator WHERE date_added BETWEEN ? AND ?";
+        String sql = DELETE_BY_DATE_SQL;
         
         try (Connection conn = DatabaseConnection.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -171,6 +173,10 @@ public class DeleteRecordsDialog extends JDialog {
             pstmt.setDate(2, new java.sql.Date(toDate.getTime()));
             
             int deletedCount = pstmt.executeUpdate();
+            if (deletedCount > 0) {
+                QueryResultCache.datesChanged(fromDate, toDate);
+                RecordCache.recordsDeleted(fromDate, toDate);
+            }
             return deletedCount;
             
         } catch (SQLException e) {
@@ -1,7 +1,10 @@
 package src;
 
 import java.sql.*;
+import java.util.Collection;
 import java.util.Date;
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetProvider;
 
 public class Duplicator {
     private int duplicatorId;
@@ -157,107 +160,12 @@ public class Duplicator {
 
     // Save to database
     public boolean save() {
-        // Check if time_added column exists
-        boolean hasTimeColumn = checkTimeColumnExists();
-        
-        String sql;
-        if (hasTimeColumn) {
-            sql = "INSERT INTO duplicator (name, phone_number, id_no, vehicle_no, key_no, key_type, purpose, date_added, time_added, remarks, quantity, amount, image_path) " +
-                  "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        } else {
-            sql = "INSERT INTO duplicator (name, phone_number, id_no, vehicle_no, key_no, key_type, purpose, date_added, remarks, quantity, amount, image_path) " +
-                  "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-        }
-                     
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            // Required fields - name, phone, and ID
-            pstmt.setString(1, name);
-            pstmt.setString(2, phoneNumber);
-            
-            // ID No is required - never save as NULL
-            pstmt.setString(3, idNo);
-            
-            // Optional vehicle number field
-            if (vehicleNo == null || vehicleNo.trim().isEmpty()) {
-                pstmt.setNull(4, java.sql.Types.VARCHAR);
-            } else {
-                pstmt.setString(4, vehicleNo);
-            }
-            
-            // Optional fields - save as NULL if empty
-            if (keyNo == null || keyNo.trim().isEmpty()) {
-                pstmt.setNull(5, java.sql.Types.VARCHAR);
-            } else {
-                pstmt.setString(5, keyNo);
-            }
-            
-            if (keyType == null || keyType.trim().isEmpty() || keyType.equals("SELECT")) {
-                pstmt.setNull(6, java.sql.Types.VARCHAR);
-            } else {
-                pstmt.setString(6, keyType);
-            }
-            
-            if (purpose == null || purpose.trim().isEmpty() || purpose.equals("SELECT")) {
-                pstmt.setNull(7, java.sql.Types.VARCHAR);
-            } else {
-                pstmt.setString(7, purpose);
-            }
-            
-            if (dateAdded != null) {
-                pstmt.setDate(8, new java.sql.Date(dateAdded.getTime()));
-            } else {
-                pstmt.setNull(8, java.sql.Types.DATE);
-            }
-            
-            int remarkIndex, quantityIndex, amountIndex, imageIndex;
-            
-            if (hasTimeColumn) {
-                if (timeAdded != null) {
-                    pstmt.setTime(9, timeAdded);
-                } else {
-                    pstmt.setNull(9, java.sql.Types.TIME);
-                }
-                remarkIndex = 10;
-                quantityIndex = 11;
-                amountIndex = 12;
-                imageIndex = 13;
-            } else {
-                remarkIndex = 9;
-                quantityIndex = 10;
-                amountIndex = 11;
-                imageIndex = 12;
-            }
-            
-            if (remarks == null || remarks.trim().isEmpty()) {
-                pstmt.setNull(remarkIndex, java.sql.Types.VARCHAR);
-            } else {
-                pstmt.setString(remarkIndex, remarks);
-            }
-            
-            pstmt.setInt(quantityIndex, quantity);
-            pstmt.setDouble(amountIndex, amount);
-            
-            if (imagePath == null || imagePath.trim().isEmpty()) {
-                pstmt.setNull(imageIndex, java.sql.Types.VARCHAR);
-            } else {
-                pstmt.setString(imageIndex, imagePath);
+        try {
+            int generatedId = DuplicatorRepository.insert(this);
+            if (generatedId > 0) {
+                duplicatorId = generatedId;
             }
-            
-            int affectedRows = pstmt.executeUpdate();
-            
-            if (affectedRows > 0) {
-                // Get the auto-generated ID
-                try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
-                    if (generatedKeys.next()) {
-                        duplicatorId = generatedKeys.getInt(1);
-                    }
-                }
-                return true;
-            }
-            return false;
-            
+            return generatedId >= 0;
         } catch (SQLException e) {
             ModernDialog.showError(null, 
                 "Error saving record: " + e.getMessage(), 
@@ -266,43 +174,26 @@ public class Duplicator {
         }
     }
     
+    // Save many records at once using JDBC batches (e.g. bulk import)
+    public static int saveAll(Collection<Duplicator> duplicators) {
+        return saveAll(duplicators, DatabaseConnection.getBatchSize());
+    }
+    
+    public static int saveAll(Collection<Duplicator> duplicators, int batchSize) {
+        try {
+            return DuplicatorRepository.insertAll(duplicators, batchSize);
+        } catch (SQLException e) {
+            ModernDialog.showError(null, 
+                "Error saving records: " + e.getMessage(), 
+                "Database Error");
+            return 0;
+        }
+    }
+    
     // Find a duplicator by ID
     public static Duplicator findById(int id) {
-        String sql = "SELECT * FROM duplicator WHERE duplicator_id = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, id);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                Duplicator duplicator = new Duplicator();
-                duplicator.setDuplicatorId(rs.getInt("duplicator_id"));
-                duplicator.setName(rs.getString("name"));
-                duplicator.setPhoneNumber(rs.getString("phone_number"));
-                duplicator.setIdNo(rs.getString("id_no"));
-                duplicator.setVehicleNo(rs.getString("vehicle_no"));
-                duplicator.setKeyNo(rs.getString("key_no"));
-                duplicator.setKeyType(rs.getString("key_type"));
-                duplicator.setPurpose(rs.getString("purpose"));
-                duplicator.setDateAdded(rs.getDate("date_added"));
-                
-                // Try to get time_added, set to null if column doesn't exist
-                try {
-                    duplicator.setTimeAdded(rs.getTime("time_added"));
-                } catch (SQLException timeEx) {
-                    // Column doesn't exist yet, leave as null
-                    duplicator.setTimeAdded(null);
-                }
-                
-                duplicator.setRemarks(rs.getString("remarks"));
-                duplicator.setQuantity(rs.getInt("quantity"));
-                duplicator.setAmount(rs.getDouble("amount"));
-                duplicator.setImagePath(rs.getString("image_path"));
-                return duplicator;
-            }
-            
+        try {
+            return DuplicatorRepository.findById(id);
         } catch (SQLException e) {
             ModernDialog.showError(null, 
                 "Error finding record: " + e.getMessage(), 
@@ -312,105 +203,10 @@ public class Duplicator {
         return null;
     }
     
-    // Update existing record
-    public boolean update() {
-        // First check if time_added column exists
-        boolean hasTimeColumn = checkTimeColumnExists();
-        
-        String sql;
-        if (hasTimeColumn) {
-            sql = "UPDATE duplicator SET name = ?, phone_number = ?, id_no = ?, vehicle_no = ?, key_no = ?, " +
-                  "key_type = ?, purpose = ?, date_added = ?, time_added = ?, remarks = ?, quantity = ?, amount = ?, image_path = ? " +
-                  "WHERE duplicator_id = ?";
-        } else {
-            sql = "UPDATE duplicator SET name = ?, phone_number = ?, id_no = ?, vehicle_no = ?, key_no = ?, " +
-                  "key_type = ?, purpose = ?, date_added = ?, remarks = ?, quantity = ?, amount = ?, image_path = ? " +
-                  "WHERE duplicator_id = ?";
-        }
-                     
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            // Required fields - name, phone, and ID
-            pstmt.setString(1, name);
-            pstmt.setString(2, phoneNumber);
-            
-            // ID No is required - never save as NULL
-            pstmt.setString(3, idNo);
-            
-            // Optional vehicle number field
-            if (vehicleNo == null || vehicleNo.trim().isEmpty()) {
-                pstmt.setNull(4, java.sql.Types.VARCHAR);
-            } else {
-                pstmt.setString(4, vehicleNo);
-            }
-            
-            // Optional fields - save as NULL if empty
-            if (keyNo == null || keyNo.trim().isEmpty()) {
-                pstmt.setNull(5, java.sql.Types.VARCHAR);
-            } else {
-                pstmt.setString(5, keyNo);
-            }
-            
-            if (keyType == null || keyType.trim().isEmpty() || keyType.equals("SELECT")) {
-                pstmt.setNull(6, java.sql.Types.VARCHAR);
-            } else {
-                pstmt.setString(6, keyType);
-            }
-            
-            if (purpose == null || purpose.trim().isEmpty() || purpose.equals("SELECT")) {
-                pstmt.setNull(7, java.sql.Types.VARCHAR);
-            } else {
-                pstmt.setString(7, purpose);
-            }
-            
-            if (dateAdded != null) {
-                pstmt.setDate(8, new java.sql.Date(dateAdded.getTime()));
-            } else {
-                pstmt.setNull(8, java.sql.Types.DATE);
-            }
-            
-            int remarkIndex, quantityIndex, amountIndex, imageIndex, idIndex;
-            
-            if (hasTimeColumn) {
-                if (timeAdded != null) {
-                    pstmt.setTime(9, timeAdded);
-                } else {
-                    pstmt.setNull(9, java.sql.Types.TIME);
-                }
-                remarkIndex = 10;
-                quantityIndex = 11;
-                amountIndex = 12;
-                imageIndex = 13;
-                idIndex = 14;
-            } else {
-                remarkIndex = 9;
-                quantityIndex = 10;
-                amountIndex = 11;
-                imageIndex = 12;
-                idIndex = 13;
-            }
-            
-            if (remarks == null || remarks.trim().isEmpty()) {
-                pstmt.setNull(remarkIndex, java.sql.Types.VARCHAR);
-            } else {
-                pstmt.setString(remarkIndex, remarks);
-            }
-            
-            pstmt.setInt(quantityIndex, quantity);
-            pstmt.setDouble(amountIndex, amount);
-            
-            if (imagePath == null || imagePath.trim().isEmpty()) {
-                pstmt.setNull(imageIndex, java.sql.Types.VARCHAR);
-            } else {
-                pstmt.setString(imageIndex, imagePath);
-            }
-            
-            pstmt.setInt(idIndex, duplicatorId);
-            
-            int affectedRows = pstmt.executeUpdate();
-            return affectedRows > 0;
-            
+    // Update existing record; previousDateAdded is its date as it was loaded
+    public boolean update(Date previousDateAdded) {
+        try {
+            return DuplicatorRepository.update(this, previousDateAdded);
         } catch (SQLException e) {
             ModernDialog.showError(null, 
                 "Error updating record: " + e.getMessage(), 
@@ -419,30 +215,25 @@ public class Duplicator {
         }
     }
     
+    // Set the fields clearDataExceptNameAndId overwrites to their cleared values
+    void markDataCleared() {
+        this.phoneNumber = "deleted";
+        this.idNo = "deleted";
+        this.keyNo = "deleted";
+        this.keyType = "deleted";
+        this.dateAdded = null;
+        this.remarks = "deleted";
+        this.quantity = 0;
+        this.amount = 0.00;
+        this.imagePath = null;
+    }
+    
     // Update existing record (clear data except name and ID)
     public boolean clearDataExceptNameAndId() {
-        String sql = "UPDATE duplicator SET phone_number = 'deleted', id_no = 'deleted', " +
-                     "key_no = 'deleted', key_type = 'deleted', date_added = NULL, remarks = 'deleted', " +
-                     "quantity = 0, amount = 0.00, image_path = NULL " +
-                     "WHERE duplicator_id = ?";
-                     
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, duplicatorId);
-            int affectedRows = pstmt.executeUpdate();
-            
-            if (affectedRows > 0) {
+        try {
+            if (DuplicatorRepository.clearDataExceptNameAndId(this)) {
                 // Update the current object to reflect changes
-                this.phoneNumber = "deleted";
-                this.idNo = "deleted";
-                this.keyNo = "deleted";
-                this.keyType = "deleted";
-                this.dateAdded = null;
-                this.remarks = "deleted";
-                this.quantity = 0;
-                this.amount = 0.00;
-                this.imagePath = null;
+                markDataCleared();
                 return true;
             }
             return false;
@@ -455,48 +246,26 @@ public class Duplicator {
         }
     }
     
-    // Get all duplicators
+    // Get all duplicators (disconnected copy so the pooled connection can be returned)
     public static ResultSet getAllDuplicators() throws SQLException {
         String sql = "SELECT * FROM duplicator ORDER BY duplicator_id DESC";
-        Connection conn = DatabaseConnection.getConnection();
-        Statement stmt = conn.createStatement(
-                ResultSet.TYPE_SCROLL_INSENSITIVE,
-                ResultSet.CONCUR_READ_ONLY);
-        return stmt.executeQuery(sql);
+        try (Connection conn = DatabaseConnection.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            CachedRowSet rows = RowSetProvider.newFactory().createCachedRowSet();
+            rows.populate(rs);
+            return rows;
+        }
     }
     
     // Count records within a date range
     public static int countRecordsByDateRange(Date startDate, Date endDate) {
-        String sql = "SELECT COUNT(*) FROM duplicator WHERE date_added BETWEEN ? AND ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setDate(1, new java.sql.Date(startDate.getTime()));
-            pstmt.setDate(2, new java.sql.Date(endDate.getTime()));
-            
-            try (ResultSet rs = pstmt.executeQuery()) {
-                if (rs.next()) {
-                    return rs.getInt(1);
-                }
-            }
-            
+        try {
+            return DuplicatorRepository.countByDateRange(startDate, endDate);
         } catch (SQLException e) {
             System.err.println("Error counting records: " + e.getMessage());
         }
         
         return 0;
     }
-    
-    // Helper method to check if time_added column exists
-    private static boolean checkTimeColumnExists() {
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement("SELECT time_added FROM duplicator WHERE 1=0")) {
-            pstmt.executeQuery();
-            return true;
-        } catch (SQLException e) {
-            // Column doesn't exist
-            return false;
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,583 @@
+package src;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.StringTokenizer;
+
+/**
+ * Data access for the duplicator table. SQL text is fixed per schema shape so
+ * the pooled connections can reuse their prepared statements, and the optional
+ * time_added column is probed once instead of before every write.
+ */
+public final class DuplicatorRepository {
+    static final String COLUMNS =
+        "duplicator_id, name, phone_number, id_no, vehicle_no, key_no, key_type, purpose, " +
+        "date_added, time_added, remarks, quantity, amount, image_path";
+    static final String COLUMNS_WITHOUT_TIME =
+        "duplicator_id, name, phone_number, id_no, vehicle_no, key_no, key_type, purpose, " +
+        "date_added, remarks, quantity, amount, image_path";
+
+    private static final String INSERT_SQL =
+        "INSERT INTO duplicator (name, phone_number, id_no, vehicle_no, key_no, key_type, purpose, date_added, time_added, remarks, quantity, amount, image_path) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // Search key columns arrive in schema version 5, after time_added, so they always come with it
+    private static final String INSERT_SQL_WITH_SEARCH_KEYS =
+        "INSERT INTO duplicator (name, phone_number, id_no, vehicle_no, key_no, key_type, purpose, date_added, time_added, remarks, quantity, amount, image_path, phone_rev, vehicle_rev) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_SQL_WITHOUT_TIME =
+        "INSERT INTO duplicator (name, phone_number, id_no, vehicle_no, key_no, key_type, purpose, date_added, remarks, quantity, amount, image_path) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_SQL =
+        "UPDATE duplicator SET name = ?, phone_number = ?, id_no = ?, vehicle_no = ?, key_no = ?, " +
+        "key_type = ?, purpose = ?, date_added = ?, time_added = ?, remarks = ?, quantity = ?, amount = ?, image_path = ? " +
+        "WHERE duplicator_id = ?";
+    private static final String UPDATE_SQL_WITHOUT_TIME =
+        "UPDATE duplicator SET name = ?, phone_number = ?, id_no = ?, vehicle_no = ?, key_no = ?, " +
+        "key_type = ?, purpose = ?, date_added = ?, remarks = ?, quantity = ?, amount = ?, image_path = ? " +
+        "WHERE duplicator_id = ?";
+    private static final String UPDATE_SQL_WITH_SEARCH_KEYS =
+        "UPDATE duplicator SET name = ?, phone_number = ?, id_no = ?, vehicle_no = ?, key_no = ?, " +
+        "key_type = ?, purpose = ?, date_added = ?, time_added = ?, remarks = ?, quantity = ?, amount = ?, image_path = ?, " +
+        "phone_rev = ?, vehicle_rev = ? " +
+        "WHERE duplicator_id = ?";
+    private static final String FIND_BY_ID_SQL =
+        "SELECT " + COLUMNS + " FROM duplicator WHERE duplicator_id = ?";
+    private static final String FIND_BY_ID_SQL_WITHOUT_TIME =
+        "SELECT " + COLUMNS_WITHOUT_TIME + " FROM duplicator WHERE duplicator_id = ?";
+    private static final String CLEAR_SQL =
+        "UPDATE duplicator SET phone_number = 'deleted', id_no = 'deleted', " +
+        "key_no = 'deleted', key_type = 'deleted', date_added = NULL, remarks = 'deleted', " +
+        "quantity = 0, amount = 0.00, image_path = NULL " +
+        "WHERE duplicator_id = ?";
+    private static final String CLEAR_SQL_WITH_SEARCH_KEYS =
+        "UPDATE duplicator SET phone_number = 'deleted', id_no = 'deleted', " +
+        "key_no = 'deleted', key_type = 'deleted', date_added = NULL, remarks = 'deleted', " +
+        "quantity = 0, amount = 0.00, image_path = NULL, phone_rev = '" + reversedSearchKey("deleted") + "' " +
+        "WHERE duplicator_id = ?";
+    static final String COUNT_BY_DATE_SQL =
+        "SELECT COUNT(*) FROM duplicator WHERE date_added BETWEEN ? AND ?";
+    private static final String COUNT_ALL_SQL = "SELECT COUNT(*) FROM duplicator";
+    static final String PAGE_SQL =
+        "SELECT " + COLUMNS + " FROM duplicator WHERE duplicator_id < ? ORDER BY duplicator_id DESC LIMIT ?";
+    private static final String PAGE_SQL_WITHOUT_TIME =
+        "SELECT " + COLUMNS_WITHOUT_TIME + " FROM duplicator WHERE duplicator_id < ? ORDER BY duplicator_id DESC LIMIT ?";
+    static final String KEY_AFTER_SQL =
+        "SELECT duplicator_id FROM duplicator WHERE duplicator_id < ? ORDER BY duplicator_id DESC LIMIT 1 OFFSET ?";
+
+    /**
+     * Condition matching rows where a word of the indexed text columns (name,
+     * phone, vehicle, ID, key and remarks) contains the bound LIKE pattern,
+     * e.g. '%JOHN%' also finds "Johnson". Read from the word list of the H2
+     * full-text index (schema version 4) instead of scanning the six columns;
+     * see {@link #fullTextWord(String)} for the pattern.
+     */
+    static final String FULL_TEXT_WORD_CONDITION =
+        "duplicator_id IN (SELECT CAST(SUBSTRING(r.\"KEY\", LOCATE('=', r.\"KEY\") + 1) AS INT) " +
+        "FROM FT.WORDS w JOIN FT.MAP m ON m.WORDID = w.ID JOIN FT.ROWS r ON r.ID = m.ROWID " +
+        "JOIN FT.INDEXES i ON i.ID = r.INDEXID WHERE i.\"TABLE\" = 'DUPLICATOR' AND w.NAME LIKE ?)";
+    // Word separators of the H2 full-text index (FullTextSettings defaults)
+    private static final String FULL_TEXT_SEPARATORS = " \t\n\r\f+\"*%&/()=?'!,.;:-_#@|^~`{}[]<>\\";
+
+    private static final String SEARCH_KEY_SOURCE_SQL =
+        "SELECT duplicator_id, phone_number, vehicle_no FROM duplicator";
+    private static final String SET_SEARCH_KEYS_SQL =
+        "UPDATE duplicator SET phone_rev = ?, vehicle_rev = ? WHERE duplicator_id = ?";
+
+    // Results of the one-time column probes; null until the first query runs.
+    private static volatile Boolean timeColumnPresent = null;
+    private static volatile Boolean searchKeyColumnsPresent = null;
+
+    private DuplicatorRepository() {
+    }
+
+    /**
+     * Whether the duplicator table has the time_added column. Checked through
+     * metadata the first time it is needed and remembered afterwards.
+     */
+    public static boolean hasTimeColumn(Connection conn) throws SQLException {
+        Boolean present = timeColumnPresent;
+        if (present != null) {
+            return present;
+        }
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet columns = meta.getColumns(null, null, "DUPLICATOR", "TIME_ADDED")) {
+            present = columns != null && columns.next();
+        }
+        timeColumnPresent = present;
+        return present;
+    }
+
+    /**
+     * Whether the phone/vehicle search key columns from schema version 5 exist.
+     */
+    public static boolean hasSearchKeyColumns(Connection conn) throws SQLException {
+        Boolean present = searchKeyColumnsPresent;
+        if (present != null) {
+            return present;
+        }
+        DatabaseMetaData meta = conn.getMetaData();
+        try (ResultSet columns = meta.getColumns(null, null, "DUPLICATOR", "VEHICLE_REV")) {
+            present = columns != null && columns.next();
+        }
+        searchKeyColumnsPresent = present;
+        return present;
+    }
+
+    /**
+     * Forget the schema probe results, e.g. after switching databases or
+     * running a migration.
+     */
+    public static void resetSchemaProbe() {
+        timeColumnPresent = null;
+        searchKeyColumnsPresent = null;
+    }
+
+    /**
+     * Phone or vehicle number reduced to upper-case letters and digits, so
+     * "KL-07 AB 1234" and "kl07ab1234" compare equal. Must stay in step with
+     * the REGEXP_REPLACE expression behind the phone_key/vehicle_key columns.
+     */
+    public static String searchKey(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9]", "");
+    }
+
+    /**
+     * {@link #searchKey(String)} reversed, as stored in phone_rev/vehicle_rev:
+     * a suffix search on the number becomes an indexable prefix search.
+     */
+    public static String reversedSearchKey(String value) {
+        return new StringBuilder(searchKey(value)).reverse().toString();
+    }
+
+    /**
+     * Longest word of the search text as the full-text index stores it (upper
+     * case), or null if the text is only separators. Every word of a text
+     * found in a column lies within one indexed word of that column, so
+     * FULL_TEXT_WORD_CONDITION with '%' + word + '%' narrows the rows to
+     * check without losing a match; when the word is the whole text, it is
+     * the match. The word never contains LIKE wildcards, which are separators.
+     */
+    static String fullTextWord(String text) {
+        String longest = null;
+        StringTokenizer words = new StringTokenizer(text, FULL_TEXT_SEPARATORS);
+        while (words.hasMoreTokens()) {
+            String word = words.nextToken();
+            if (longest == null || word.length() > longest.length()) {
+                longest = word;
+            }
+        }
+        return longest != null ? longest.toUpperCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * Fill phone_rev and vehicle_rev for every row. Used by the schema
+     * migration that adds the columns; H2 has no REVERSE() to do it in SQL.
+     */
+    static void backfillSearchKeys(Connection conn) throws SQLException {
+        try (Statement select = conn.createStatement();
+             ResultSet rs = select.executeQuery(SEARCH_KEY_SOURCE_SQL);
+             PreparedStatement update = conn.prepareStatement(SET_SEARCH_KEYS_SQL)) {
+            int pending = 0;
+            while (rs.next()) {
+                setSearchKey(update, 1, rs.getString("phone_number"));
+                setSearchKey(update, 2, rs.getString("vehicle_no"));
+                update.setInt(3, rs.getInt("duplicator_id"));
+                update.addBatch();
+                if (++pending >= DatabaseConnection.getBatchSize()) {
+                    update.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                update.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Insert the record and return the generated duplicator_id, 0 if the
+     * driver did not report one, or -1 if no row was inserted.
+     */
+    public static int insert(Duplicator duplicator) throws SQLException {
+        int id;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            id = insert(conn, duplicator);
+        }
+        QueryResultCache.dateChanged(duplicator.getDateAdded());
+        if (id > 0) {
+            Duplicator stored = storedCopy(duplicator);
+            stored.setDuplicatorId(id);
+            RecordCache.recordChanged(stored);
+        } else if (id == 0) {
+            RecordCache.recordsChanged();
+        }
+        return id;
+    }
+
+    static int insert(Connection conn, Duplicator duplicator) throws SQLException {
+        boolean hasTimeColumn = hasTimeColumn(conn);
+        boolean hasSearchKeys = hasSearchKeyColumns(conn);
+        PreparedStatement pstmt = ConnectionPool.prepareCached(conn,
+            insertSql(hasTimeColumn, hasSearchKeys), Statement.RETURN_GENERATED_KEYS);
+        bindRecord(pstmt, duplicator, hasTimeColumn, hasSearchKeys);
+
+        if (pstmt.executeUpdate() == 0) {
+            return -1;
+        }
+        try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+            return generatedKeys.next() ? generatedKeys.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Insert all records in a single transaction using JDBC batches of
+     * {@code batchSize} rows. Generated ids are written back to the records
+     * in iteration order. Returns the number of rows inserted.
+     */
+    public static int insertAll(Collection<Duplicator> records, int batchSize) throws SQLException {
+        if (records == null || records.isEmpty()) {
+            return 0;
+        }
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            boolean previousAutoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try {
+                int inserted = insertAll(conn, records, batchSize);
+                conn.commit();
+                QueryResultCache.recordsChanged(records);
+                RecordCache.recordsChanged();
+                return inserted;
+            } catch (SQLException | RuntimeException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(previousAutoCommit);
+            }
+        }
+    }
+
+    /**
+     * Batch insert on a caller-managed connection; the caller owns the
+     * transaction.
+     */
+    static int insertAll(Connection conn, Collection<Duplicator> records, int batchSize) throws SQLException {
+        if (records == null || records.isEmpty()) {
+            return 0;
+        }
+        int effectiveBatchSize = Math.max(1, batchSize);
+        boolean hasTimeColumn = hasTimeColumn(conn);
+        boolean hasSearchKeys = hasSearchKeyColumns(conn);
+        PreparedStatement pstmt = ConnectionPool.prepareCached(conn,
+            insertSql(hasTimeColumn, hasSearchKeys), Statement.RETURN_GENERATED_KEYS);
+
+        int inserted = 0;
+        List<Duplicator> pending = new ArrayList<>(Math.min(records.size(), effectiveBatchSize));
+        for (Duplicator record : records) {
+            bindRecord(pstmt, record, hasTimeColumn, hasSearchKeys);
+            pstmt.addBatch();
+            pending.add(record);
+            if (pending.size() >= effectiveBatchSize) {
+                inserted += flushBatch(pstmt, pending);
+            }
+        }
+        if (!pending.isEmpty()) {
+            inserted += flushBatch(pstmt, pending);
+        }
+        return inserted;
+    }
+
+    private static String insertSql(boolean hasTimeColumn, boolean hasSearchKeys) {
+        if (hasSearchKeys) {
+            return INSERT_SQL_WITH_SEARCH_KEYS;
+        }
+        return hasTimeColumn ? INSERT_SQL : INSERT_SQL_WITHOUT_TIME;
+    }
+
+    private static int flushBatch(PreparedStatement pstmt, List<Duplicator> pending) throws SQLException {
+        int[] counts = pstmt.executeBatch();
+        int inserted = 0;
+        for (int count : counts) {
+            // SUCCESS_NO_INFO (-2) still means the row went in
+            if (count > 0 || count == Statement.SUCCESS_NO_INFO) {
+                inserted++;
+            }
+        }
+
+        try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+            int index = 0;
+            while (generatedKeys.next() && index < pending.size()) {
+                pending.get(index++).setDuplicatorId(generatedKeys.getInt(1));
+            }
+        }
+        pending.clear();
+        return inserted;
+    }
+
+    /**
+     * Write the record. previousDate is its date_added as loaded by the
+     * caller, so cached results for the day it moves away from are dropped
+     * as well.
+     */
+    public static boolean update(Duplicator duplicator, Date previousDate) throws SQLException {
+        boolean updated;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            boolean hasTimeColumn = hasTimeColumn(conn);
+            boolean hasSearchKeys = hasSearchKeyColumns(conn);
+            String sql = hasSearchKeys ? UPDATE_SQL_WITH_SEARCH_KEYS
+                : hasTimeColumn ? UPDATE_SQL : UPDATE_SQL_WITHOUT_TIME;
+            PreparedStatement pstmt = ConnectionPool.prepareCached(conn, sql);
+            int idIndex = bindRecord(pstmt, duplicator, hasTimeColumn, hasSearchKeys);
+            pstmt.setInt(idIndex, duplicator.getDuplicatorId());
+            updated = pstmt.executeUpdate() > 0;
+        }
+        if (updated) {
+            QueryResultCache.dateChanged(previousDate);
+            QueryResultCache.dateChanged(duplicator.getDateAdded());
+            RecordCache.recordChanged(storedCopy(duplicator));
+        }
+        return updated;
+    }
+
+    public static Duplicator findById(int id) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            boolean hasTimeColumn = hasTimeColumn(conn);
+            PreparedStatement pstmt = ConnectionPool.prepareCached(conn,
+                hasTimeColumn ? FIND_BY_ID_SQL : FIND_BY_ID_SQL_WITHOUT_TIME);
+            pstmt.setInt(1, id);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? mapRow(rs, hasTimeColumn) : null;
+            }
+        }
+    }
+
+    /**
+     * Clear everything but the name, vehicle, purpose and time of the record,
+     * given as the caller loaded it.
+     */
+    public static boolean clearDataExceptNameAndId(Duplicator record) throws SQLException {
+        int id = record.getDuplicatorId();
+        boolean cleared;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            PreparedStatement pstmt = ConnectionPool.prepareCached(conn,
+                hasSearchKeyColumns(conn) ? CLEAR_SQL_WITH_SEARCH_KEYS : CLEAR_SQL);
+            pstmt.setInt(1, id);
+            cleared = pstmt.executeUpdate() > 0;
+        }
+        if (cleared) {
+            QueryResultCache.dateChanged(record.getDateAdded());
+            Duplicator stored = storedCopy(record);
+            stored.markDataCleared();
+            RecordCache.recordChanged(stored);
+        }
+        return cleared;
+    }
+
+    public static int countByDateRange(Date startDate, Date endDate) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            PreparedStatement pstmt = ConnectionPool.prepareCached(conn, COUNT_BY_DATE_SQL);
+            pstmt.setDate(1, new java.sql.Date(startDate.getTime()));
+            pstmt.setDate(2, new java.sql.Date(endDate.getTime()));
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    public static int countAll() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            PreparedStatement pstmt = ConnectionPool.prepareCached(conn, COUNT_ALL_SQL);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Keyset page in newest-first order: up to {@code limit} records whose
+     * duplicator_id is strictly below {@code beforeId}. Pass
+     * {@link Integer#MAX_VALUE} for the first page.
+     */
+    public static List<Duplicator> findPageBefore(int beforeId, int limit) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            boolean hasTimeColumn = hasTimeColumn(conn);
+            PreparedStatement pstmt = ConnectionPool.prepareCached(conn,
+                hasTimeColumn ? PAGE_SQL : PAGE_SQL_WITHOUT_TIME);
+            pstmt.setInt(1, beforeId);
+            pstmt.setInt(2, limit);
+            List<Duplicator> page = new ArrayList<>(limit);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    page.add(mapRow(rs, hasTimeColumn));
+                }
+            }
+            return page;
+        }
+    }
+
+    /**
+     * duplicator_id {@code offset} rows past {@code beforeId} in newest-first
+     * order (0 is the first id below it), or null past the end. Walks the
+     * descending id index (schema version 9) from the bound; used to find a
+     * keyset boundary when the user jumps into the middle of the list.
+     */
+    public static Integer findIdAfter(int beforeId, int offset) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            PreparedStatement pstmt = ConnectionPool.prepareCached(conn, KEY_AFTER_SQL);
+            pstmt.setInt(1, beforeId);
+            pstmt.setInt(2, offset);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        }
+    }
+
+    /**
+     * Build a Duplicator from the current row. The row must contain the
+     * columns listed in {@link #COLUMNS} (or {@link #COLUMNS_WITHOUT_TIME}).
+     */
+    static Duplicator mapRow(ResultSet rs, boolean hasTimeColumn) throws SQLException {
+        Duplicator duplicator = new Duplicator();
+        duplicator.setDuplicatorId(rs.getInt("duplicator_id"));
+        duplicator.setName(rs.getString("name"));
+        duplicator.setPhoneNumber(rs.getString("phone_number"));
+        duplicator.setIdNo(rs.getString("id_no"));
+        duplicator.setVehicleNo(rs.getString("vehicle_no"));
+        duplicator.setKeyNo(rs.getString("key_no"));
+        duplicator.setKeyType(rs.getString("key_type"));
+        duplicator.setPurpose(rs.getString("purpose"));
+        duplicator.setDateAdded(rs.getDate("date_added"));
+        duplicator.setTimeAdded(hasTimeColumn ? rs.getTime("time_added") : null);
+        duplicator.setRemarks(rs.getString("remarks"));
+        duplicator.setQuantity(rs.getInt("quantity"));
+        duplicator.setAmount(rs.getDouble("amount"));
+        duplicator.setImagePath(rs.getString("image_path"));
+        return duplicator;
+    }
+
+    /**
+     * Copy of the record with the values {@link #bindRecord} stores: blank
+     * text and combo placeholders as null, the date without its time of day,
+     * the time rounded to the second and the amount to the cent. Lets the
+     * record cache take a write without reading the row back.
+     */
+    static Duplicator storedCopy(Duplicator d) {
+        Duplicator stored = new Duplicator();
+        stored.setDuplicatorId(d.getDuplicatorId());
+        stored.setName(d.getName());
+        stored.setPhoneNumber(d.getPhoneNumber());
+        stored.setIdNo(d.getIdNo());
+        stored.setVehicleNo(optionalString(d.getVehicleNo()));
+        stored.setKeyNo(optionalString(d.getKeyNo()));
+        stored.setKeyType(optionalSelection(d.getKeyType()));
+        stored.setPurpose(optionalSelection(d.getPurpose()));
+        if (d.getDateAdded() != null) {
+            stored.setDateAdded(java.sql.Date.valueOf(new java.sql.Date(d.getDateAdded().getTime()).toLocalDate()));
+        }
+        if (d.getTimeAdded() != null) {
+            LocalTime time = new Timestamp(d.getTimeAdded().getTime()).toLocalDateTime().toLocalTime();
+            stored.setTimeAdded(java.sql.Time.valueOf(time.plusNanos(500_000_000).truncatedTo(ChronoUnit.SECONDS)));
+        }
+        stored.setRemarks(optionalString(d.getRemarks()));
+        stored.setQuantity(d.getQuantity());
+        stored.setAmount(BigDecimal.valueOf(d.getAmount()).setScale(2, RoundingMode.HALF_UP).doubleValue());
+        stored.setImagePath(optionalString(d.getImagePath()));
+        return stored;
+    }
+
+    /**
+     * Bind the record columns in INSERT/UPDATE order and return the next
+     * free parameter index.
+     */
+    static int bindRecord(PreparedStatement pstmt, Duplicator d, boolean hasTimeColumn,
+                          boolean hasSearchKeys) throws SQLException {
+        // Required fields - name, phone, and ID (ID No is never saved as NULL)
+        pstmt.setString(1, d.getName());
+        pstmt.setString(2, d.getPhoneNumber());
+        pstmt.setString(3, d.getIdNo());
+
+        // Optional fields - save as NULL if empty
+        setOptionalString(pstmt, 4, d.getVehicleNo());
+        setOptionalString(pstmt, 5, d.getKeyNo());
+        setOptionalSelection(pstmt, 6, d.getKeyType());
+        setOptionalSelection(pstmt, 7, d.getPurpose());
+
+        if (d.getDateAdded() != null) {
+            pstmt.setDate(8, new java.sql.Date(d.getDateAdded().getTime()));
+        } else {
+            pstmt.setNull(8, Types.DATE);
+        }
+
+        int index = 9;
+        if (hasTimeColumn) {
+            if (d.getTimeAdded() != null) {
+                pstmt.setTime(index, d.getTimeAdded());
+            } else {
+                pstmt.setNull(index, Types.TIME);
+            }
+            index++;
+        }
+
+        setOptionalString(pstmt, index++, d.getRemarks());
+        pstmt.setInt(index++, d.getQuantity());
+        pstmt.setDouble(index++, d.getAmount());
+        setOptionalString(pstmt, index++, d.getImagePath());
+
+        if (hasSearchKeys) {
+            setSearchKey(pstmt, index++, d.getPhoneNumber());
+            setSearchKey(pstmt, index++, d.getVehicleNo());
+        }
+        return index;
+    }
+
+    private static void setSearchKey(PreparedStatement pstmt, int index, String value) throws SQLException {
+        String key = reversedSearchKey(value);
+        if (key.isEmpty()) {
+            pstmt.setNull(index, Types.VARCHAR);
+        } else {
+            pstmt.setString(index, key);
+        }
+    }
+
+    private static void setOptionalString(PreparedStatement pstmt, int index, String value) throws SQLException {
+        setNullable(pstmt, index, optionalString(value));
+    }
+
+    private static void setOptionalSelection(PreparedStatement pstmt, int index, String value) throws SQLException {
+        setNullable(pstmt, index, optionalSelection(value));
+    }
+
+    private static void setNullable(PreparedStatement pstmt, int index, String value) throws SQLException {
+        if (value == null) {
+            pstmt.setNull(index, Types.VARCHAR);
+        } else {
+            pstmt.setString(index, value);
+        }
+    }
+
+    private static String optionalString(String value) {
+        return value == null || value.trim().isEmpty() ? null : value;
+    }
+
+    // Combo box placeholders ("SELECT") are stored as NULL
+    private static String optionalSelection(String value) {
+        return value == null || value.equals("SELECT") ? null : optionalString(value);
+    }
+}
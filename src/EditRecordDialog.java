@@ -10,6 +10,8 @@ import javax.swing.*;
 
 public class EditRecordDialog extends JDialog {
     private Duplicator duplicator;
+    // Date the record had when it was loaded; the form overwrites the one on duplicator
+    private final Date originalDateAdded;
     private JTextField txtName;
     private JTextField txtPhoneNumber;
     private JTextField txtVehicleNo;
@@ -39,11 +41,13 @@ public class EditRecordDialog extends JDialog {
     private boolean saved = false;
     // Holds a newly captured image path that is not yet committed (user hasn't clicked Save).
     private String pendingImagePath;
+    private QueryExecutor.Task<BufferedImage> imageTask;
     
     public EditRecordDialog(Frame owner, Duplicator duplicator) {
         super(owner, "Edit Record - ID: " + duplicator.getDuplicatorId(), true);
         this.duplicator = duplicator;
         this.imagePath = duplicator.getImagePath();
+        this.originalDateAdded = duplicator.getDateAdded();
         
         setSize(1000, 745);
         setLocationRelativeTo(owner);
@@ -633,23 +637,27 @@ public class EditRecordDialog extends JDialog {
         String withoutPayment = ServiceTypeHelper.stripPaymentSuffix(withoutService);
         txtRemarks.setText(withoutPayment);
         
-        // Load image
-        if (imagePath != null && !imagePath.trim().isEmpty()) {
-            try {
-                File imageFile = new File(imagePath);
-                if (imageFile.exists()) {
-                    BufferedImage img = ImageIO.read(imageFile);
-                    Image scaledImg = img.getScaledInstance(260, 260, Image.SCALE_SMOOTH);
-                    lblImagePreview.setIcon(new ImageIcon(scaledImg));
-                    // image present
+        // Load image; reading the thumbnail may mean decoding the photo first
+        BufferedImage cached = ThumbnailCache.getCached(imagePath, 260);
+        if (cached != null) {
+            lblImagePreview.setIcon(new ImageIcon(cached));
+        } else if (imagePath != null && !imagePath.trim().isEmpty()) {
+            lblImagePreview.setText("Loading image...");
+            String path = imagePath;
+            imageTask = QueryExecutor.submit(task -> ThumbnailCache.load(path, 260), thumbnail -> {
+                if (thumbnail != null) {
+                    lblImagePreview.setText("");
+                    lblImagePreview.setIcon(new ImageIcon(thumbnail));
                 } else {
                     lblImagePreview.setText("Image not found");
                     imagePath = null; // treat as no image
+                    updateImageButtonsState();
                 }
-            } catch (Exception e) {
+            }, e -> {
                 lblImagePreview.setText("Error loading image");
                 imagePath = null;
-            }
+                updateImageButtonsState();
+            });
         } else {
             lblImagePreview.setText("No image");
         }
@@ -689,6 +697,7 @@ public class EditRecordDialog extends JDialog {
             "Confirm Image Deletion");
             
         if (response == JOptionPane.YES_OPTION) {
+            QueryExecutor.cancel(imageTask);
             // Delete the image file
             try {
                 File imageFile = new File(imagePath);
@@ -750,6 +759,7 @@ public class EditRecordDialog extends JDialog {
         }
 
         // Clean up any previous pending file
+        QueryExecutor.cancel(imageTask);
         discardPendingImageFile();
         pendingImagePath = newImagePath;
 
@@ -773,6 +783,7 @@ public class EditRecordDialog extends JDialog {
         if (!captureDialog.isImageCaptured()) return;
         String newImagePath = captureDialog.getSavedImagePath();
         if (newImagePath == null || newImagePath.trim().isEmpty()) return;
+        QueryExecutor.cancel(imageTask);
         discardPendingImageFile();
         pendingImagePath = newImagePath;
         try {
@@ -919,21 +930,21 @@ public class EditRecordDialog extends JDialog {
         duplicator.setRemarks(finalRemarks);
         
         // Commit pending image if present
+        boolean imageCommitted = false;
         if (pendingImagePath != null && !pendingImagePath.trim().isEmpty()) {
             try {
                 if (imagePath != null && !imagePath.trim().isEmpty()) {
-                    // Overwrite existing image file contents to keep same path reference
-                    BufferedImage stagedImg = ImageIO.read(new File(pendingImagePath));
-                    ImageIO.write(stagedImg, "JPG", new File(imagePath));
-                    // Remove the staged file if different
+                    // Replace the existing image file to keep same path reference
                     if (!pendingImagePath.equals(imagePath)) {
-                        discardPendingImageFile();
+                        ImageFileHelper.moveFile(new File(pendingImagePath), new File(imagePath));
+                        pendingImagePath = null; // moved
                     }
                 } else {
                     // No existing image; adopt pending as official
                     imagePath = pendingImagePath;
                     pendingImagePath = null; // adopted
                 }
+                imageCommitted = true;
             } catch (Exception ex) {
                 ModernDialog.showError(this,
                     "Failed to commit staged image: " + ex.getMessage(),
@@ -945,7 +956,10 @@ public class EditRecordDialog extends JDialog {
         duplicator.setImagePath(imagePath);
         
         // Save to database
-        if (duplicator.update()) {
+        if (duplicator.update(originalDateAdded)) {
+            if (imageCommitted) {
+                ImageFileHelper.processSavedPhoto(imagePath);
+            }
             saved = true;
             dispose();
         } else {
@@ -961,6 +975,7 @@ public class EditRecordDialog extends JDialog {
 
     @Override
     public void dispose() {
+        QueryExecutor.cancel(imageTask);
         // If dialog closed without saving, discard any staged image
         if (!saved) {
             discardPendingImageFile();
@@ -0,0 +1,97 @@
+package src;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+/**
+ * Moving captured photos into the images directory. The JPEG written by the
+ * webcam dialog is moved as it is rather than decoded and encoded again, so
+ * saving a record does not wait on JPEG encoding or lose quality. If a photo
+ * quality is set in Preferences ({@link AppConfig#getPhotoQuality()}), the
+ * photo is recompressed afterwards on a background thread.
+ */
+public final class ImageFileHelper {
+
+    private ImageFileHelper() {
+        // Utility class; prevent instantiation.
+    }
+
+    /**
+     * Move source to target, replacing target. An atomic rename when both
+     * are on the same drive; otherwise Files.move copies and deletes.
+     */
+    public static void moveFile(File source, File target) throws IOException {
+        File dir = target.getAbsoluteFile().getParentFile();
+        if (dir != null && !dir.exists() && !dir.mkdirs()) {
+            throw new IOException("Unable to create directory: " + dir.getAbsolutePath());
+        }
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Background work after a photo was saved to a record: recompress it if
+     * a photo quality is configured, then write its thumbnail.
+     */
+    public static void processSavedPhoto(String imagePath) {
+        if (imagePath == null || imagePath.trim().isEmpty()) {
+            return;
+        }
+        int quality = AppConfig.getPhotoQuality();
+        QueryExecutor.submitBackground(task -> {
+            if (quality > 0) {
+                recompress(new File(imagePath), quality / 100f);
+            }
+            ThumbnailCache.generate(imagePath);
+            return null;
+        }, null, e -> System.err.println("Could not process photo " + imagePath + ": " + e.getMessage()));
+    }
+
+    /**
+     * Re-encode a JPEG at the given quality (0..1). Kept only when smaller;
+     * the result replaces the photo by an atomic move, so a viewer reads
+     * either the old or the new file, never a partial one.
+     */
+    static void recompress(File photo, float quality) throws IOException {
+        BufferedImage image = ImageIO.read(photo);
+        if (image == null) {
+            return;
+        }
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpg");
+        if (!writers.hasNext()) {
+            return;
+        }
+        ImageWriter writer = writers.next();
+        File temp = File.createTempFile("photo", ".tmp", photo.getAbsoluteFile().getParentFile());
+        try {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp)) {
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            if (temp.length() > 0 && temp.length() < photo.length()) {
+                moveFile(temp, photo);
+            }
+        } finally {
+            temp.delete();
+        }
+    }
+}
@@ -74,10 +74,11 @@ public class KeyBase {
                 // Test database connection
                 splash.updateStatus("Connecting to database...");
                 Thread.sleep(300);
-                try {
-                    Connection conn = DatabaseConnection.getConnection();
+                try (Connection conn = DatabaseConnection.getConnection()) {
+                    if (!conn.isValid(2)) {
+                        throw new SQLException("Database is not responding");
+                    }
                     System.out.println("Database connection successful!");
-                    DatabaseConnection.closeConnection();
                 } catch (SQLException e) {
                     splash.close();
                     showDatabaseConnectionError(e);
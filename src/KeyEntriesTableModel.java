@@ -0,0 +1,196 @@
+package src;
+
+import java.text.SimpleDateFormat;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Virtual table model for the main "Records" table. Only the row count is
+ * known up front; rows are fetched in pages of {@link #PAGE_SIZE} when the
+ * table first asks for them, using keyset pagination on duplicator_id
+ * (newest first). A bounded number of pages is kept in memory.
+ *
+ * All model state is touched on the EDT only; queries run on the shared
+ * {@link QueryExecutor}, which hands their results back on the EDT.
+ */
+public class KeyEntriesTableModel extends AbstractTableModel {
+    static final String[] COLUMN_NAMES = {"SN", "Name", "Phone", "Vehicle No", "Key No/Model", "Key Type", "Purpose", "ID No", "Date", "Remarks", "Quantity", "Amount"};
+    static final int PAGE_SIZE = 100;
+    private static final int MAX_CACHED_PAGES = 20;
+
+    private final Map<Integer, Object[][]> pages = new LinkedHashMap<Integer, Object[][]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, Object[][]> eldest) {
+            return size() > MAX_CACHED_PAGES;
+        }
+    };
+    // Smallest duplicator_id of each page seen so far: the keyset bound for the following page
+    private final Map<Integer, Integer> pageLastIds = new HashMap<>();
+    private final Set<Integer> loadingPages = new HashSet<>();
+
+    private int rowCount;
+    private int generation;
+    private boolean errorReported;
+    private Consumer<Exception> errorHandler;
+
+    public void setErrorHandler(Consumer<Exception> errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Drop every cached page and re-read the row count and first page.
+     */
+    public void reload() {
+        final int gen = ++generation;
+        pages.clear();
+        pageLastIds.clear();
+        loadingPages.clear();
+        loadingPages.add(0);
+        errorReported = false;
+
+        QueryExecutor.submit(task -> {
+            int count = DuplicatorRepository.countAll();
+            List<Duplicator> firstPage = DuplicatorRepository.findPageBefore(Integer.MAX_VALUE, PAGE_SIZE);
+            return new FirstPage(count, toRows(firstPage));
+        }, first -> {
+            if (gen != generation) {
+                return;
+            }
+            rowCount = first.count;
+            storePage(0, first.rows);
+            fireTableDataChanged();
+        }, e -> loadFailed(gen, 0, e));
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false; // Make table non-editable
+    }
+
+    /**
+     * Returns null for rows whose page has not arrived yet; the page is
+     * requested and the rows repainted once loaded.
+     */
+    @Override
+    public Object getValueAt(int row, int column) {
+        int page = row / PAGE_SIZE;
+        Object[][] data = pages.get(page);
+        if (data == null) {
+            requestPage(page);
+            return null;
+        }
+        int index = row % PAGE_SIZE;
+        return index < data.length ? data[index][column] : null;
+    }
+
+    private void requestPage(int page) {
+        if (!loadingPages.add(page)) {
+            return;
+        }
+        final int gen = generation;
+        // Nearest earlier page whose bound is known; -1 stands for the start of the list
+        int known = page - 1;
+        while (known >= 0 && !pageLastIds.containsKey(known)) {
+            known--;
+        }
+        final int knownBound = known < 0 ? Integer.MAX_VALUE : pageLastIds.get(known);
+        final int skip = (page - known - 1) * PAGE_SIZE - 1;
+
+        QueryExecutor.submit(task -> {
+            Integer beforeId = knownBound;
+            if (skip >= 0) {
+                // Jumped past unseen pages: count forward from the known bound along the id index
+                beforeId = DuplicatorRepository.findIdAfter(knownBound, skip);
+            }
+            return beforeId == null
+                ? new Object[0][]
+                : toRows(DuplicatorRepository.findPageBefore(beforeId, PAGE_SIZE));
+        }, rows -> pageLoaded(gen, page, rows), e -> loadFailed(gen, page, e));
+    }
+
+    private void pageLoaded(int gen, int page, Object[][] rows) {
+        if (gen != generation) {
+            return;
+        }
+        storePage(page, rows);
+        int first = page * PAGE_SIZE;
+        int last = Math.min(rowCount - 1, first + PAGE_SIZE - 1);
+        if (last >= first) {
+            fireTableRowsUpdated(first, last);
+        }
+    }
+
+    private void storePage(int page, Object[][] rows) {
+        loadingPages.remove(page);
+        pages.put(page, rows);
+        if (rows.length > 0) {
+            pageLastIds.put(page, (Integer) rows[rows.length - 1][0]);
+        }
+    }
+
+    private void loadFailed(int gen, int page, Exception e) {
+        if (gen != generation) {
+            return;
+        }
+        loadingPages.remove(page);
+        if (!errorReported && errorHandler != null) {
+            errorReported = true;
+            errorHandler.accept(e);
+        }
+    }
+
+    private static Object[][] toRows(List<Duplicator> records) {
+        SimpleDateFormat dateFormat = new SimpleDateFormat("dd-MM-yyyy");
+        Object[][] rows = new Object[records.size()][];
+        for (int i = 0; i < rows.length; i++) {
+            Duplicator d = records.get(i);
+            String dateStr = d.getDateAdded() != null ? dateFormat.format(d.getDateAdded()) : "";
+            rows[i] = new Object[] {
+                d.getDuplicatorId(),
+                d.getName(),
+                d.getPhoneNumber(),
+                d.getVehicleNo(),
+                d.getKeyNo(),
+                d.getKeyType(),
+                d.getPurpose(),
+                d.getIdNo(),
+                dateStr,
+                d.getRemarks(),
+                d.getQuantity(),
+                String.format("%.2f", d.getAmount())
+            };
+        }
+        return rows;
+    }
+
+    private static final class FirstPage {
+        private final int count;
+        private final Object[][] rows;
+
+        private FirstPage(int count, Object[][] rows) {
+            this.count = count;
+            this.rows = rows;
+        }
+    }
+}
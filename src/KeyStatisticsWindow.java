@@ -5,6 +5,8 @@ import java.awt.*;
 import java.awt.event.*;
 import java.sql.*;
 import java.text.DecimalFormat;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.*;
 import java.util.List;
 
@@ -27,15 +29,34 @@ public class KeyStatisticsWindow extends JFrame {
         @Override public String toString() { return label; }
     }
     
+    // Every view is computed from these rows of the daily rollup (see DailySalesRollup), so one
+    // query serves all five; package-private so QueryPlanCheck can EXPLAIN them
+    static final String KEY_COUNTS_SQL =
+        "SELECT key_type, purpose, quantity, SUM(record_count) FROM daily_sales_rollup " +
+        "GROUP BY key_type, purpose, quantity";
+    static final String KEY_COUNTS_IN_RANGE_SQL =
+        "SELECT key_type, purpose, quantity, SUM(record_count) FROM daily_sales_rollup " +
+        "WHERE date_added >= ? AND date_added <= ? GROUP BY key_type, purpose, quantity";
+    private static final LocalDate FIRST_DAY = LocalDate.of(1900, 1, 1);
+    private static final LocalDate LAST_DAY = LocalDate.of(9999, 12, 31);
+    
     // State
     private StatType currentStat = StatType.TOTAL_KEYS;
     
     // UI components
     private JPanel contentPanel;
+    private JDateChooser fromDateChooser;
+    private JDateChooser toDateChooser;
     
     // Data
     private Map<String, Integer> statData = new LinkedHashMap<>();
     private int totalCount = 0;
+    private QueryExecutor.Task<List<Object[]>> loadTask;
+    // KEY_COUNTS rows of the range on screen, shared by all views
+    private List<Object[]> loadedRows;
+    private boolean loadedAllTime;
+    private LocalDate loadedFrom;
+    private LocalDate loadedTo;
     
     public KeyStatisticsWindow(Frame owner) {
         setTitle("Key Statistics");
@@ -79,11 +100,50 @@ public class KeyStatisticsWindow extends JFrame {
         scrollPane.setBorder(BorderFactory.createLineBorder(new Color(109, 193, 210), 1));
         scrollPane.getVerticalScrollBar().setUnitIncrement(16);
         
+        rightPanel.add(createDateFilter(), BorderLayout.NORTH);
         rightPanel.add(scrollPane, BorderLayout.CENTER);
         
         add(rightPanel, BorderLayout.CENTER);
     }
     
+    /**
+     * From/To dates limiting the statistics; both empty means all records.
+     */
+    private JPanel createDateFilter() {
+        JPanel panel = new JPanel(new FlowLayout(FlowLayout.LEFT, 8, 0));
+        panel.setBackground(Color.WHITE);
+        
+        JLabel lblFrom = new JLabel("From:");
+        lblFrom.setFont(new Font("Segoe UI", Font.BOLD, 12));
+        fromDateChooser = new JDateChooser();
+        fromDateChooser.setPreferredSize(new Dimension(150, 30));
+        
+        JLabel lblTo = new JLabel("To:");
+        lblTo.setFont(new Font("Segoe UI", Font.BOLD, 12));
+        toDateChooser = new JDateChooser();
+        toDateChooser.setPreferredSize(new Dimension(150, 30));
+        
+        JButton btnAllTime = new JButton("All Time");
+        btnAllTime.setFont(new Font("Segoe UI", Font.PLAIN, 12));
+        btnAllTime.setFocusPainted(false);
+        btnAllTime.setToolTipText("Clear the dates and count every record");
+        btnAllTime.addActionListener(e -> {
+            fromDateChooser.setDate(null);
+            toDateChooser.setDate(null);
+        });
+        
+        // Reload whenever either date changes
+        fromDateChooser.addPropertyChangeListener("date", e -> loadData());
+        toDateChooser.addPropertyChangeListener("date", e -> loadData());
+        
+        panel.add(lblFrom);
+        panel.add(fromDateChooser);
+        panel.add(lblTo);
+        panel.add(toDateChooser);
+        panel.add(btnAllTime);
+        return panel;
+    }
+    
     private JPanel createSidebar() {
         JPanel sidebar = new JPanel() {
             @Override
@@ -231,121 +291,120 @@ public class KeyStatisticsWindow extends JFrame {
     }
     
     private void loadData() {
-        statData.clear();
-        totalCount = 0;
-        
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            switch (currentStat) {
+        final LocalDate from = toLocalDate(fromDateChooser.getDate());
+        final LocalDate to = toLocalDate(toDateChooser.getDate());
+        final boolean allTime = from == null && to == null;
+        // An open end of the range reaches the first or last record
+        final LocalDate rangeFrom = from != null ? from : FIRST_DAY;
+        final LocalDate rangeTo = to != null ? to : LAST_DAY;
+
+        QueryExecutor.cancel(loadTask);
+        // Another view of the loaded range: all of them come from the same rows,
+        // unless a write has dropped them from the cache since
+        if (loadedRows != null && allTime == loadedAllTime && rangeFrom.equals(loadedFrom) && rangeTo.equals(loadedTo)
+                && loadedRows == (allTime ? QueryResultCache.getAll(KEY_COUNTS_SQL)
+                    : QueryResultCache.getRange(KEY_COUNTS_IN_RANGE_SQL, rangeFrom, rangeTo))) {
+            showResult(summarize(currentStat, loadedRows));
+            return;
+        }
+
+        loadTask = QueryExecutor.submit(task -> {
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                return allTime ? QueryResultCache.queryAll(conn, KEY_COUNTS_SQL)
+                    : QueryResultCache.queryRange(conn, KEY_COUNTS_IN_RANGE_SQL, rangeFrom, rangeTo);
+            }
+        }, rows -> {
+            loadedRows = rows;
+            loadedAllTime = allTime;
+            loadedFrom = rangeFrom;
+            loadedTo = rangeTo;
+            showResult(summarize(currentStat, rows));
+        }, e -> {
+            ModernDialog.showError(this,
+                "Error loading statistics: " + e.getMessage(),
+                "Database Error");
+            e.printStackTrace();
+        });
+    }
+
+    private void showResult(StatResult result) {
+        statData = result.data;
+        totalCount = result.total;
+        updateUI();
+    }
+
+    /**
+     * One view computed from the KEY_COUNTS rows (key_type, purpose,
+     * quantity, record count).
+     */
+    private static StatResult summarize(StatType stat, List<Object[]> rows) {
+        StatResult result = new StatResult();
+        Map<String, Integer> counts = new HashMap<>();
+        Map<Integer, Integer> recordsByQuantity = new TreeMap<>();
+        Map<String, String> parents = stat == StatType.BY_CATEGORY ? AppConfig.getParentByChild() : null;
+        int recordCount = 0;
+
+        for (Object[] row : rows) {
+            String keyType = (String) row[0];
+            String purpose = (String) row[1];
+            int qty = toInt(row[2]);
+            int records = toInt(row[3]);
+            int keys = qty * records; // Total keys = quantity × record count
+            recordCount += records;
+
+            switch (stat) {
                 case TOTAL_KEYS:
-                    loadTotalKeys(conn);
-                    break;
-                case BY_CATEGORY:
-                    loadByCategory(conn);
+                    result.total += keys;
                     break;
                 case BY_KEY_TYPE:
-                    loadByKeyType(conn);
+                    if (keyType == null || keyType.trim().isEmpty()) keyType = "Not Specified";
+                    // Exclude "Vehicles" as per requirement
+                    if (!"Vehicles".equalsIgnoreCase(keyType)) {
+                        counts.merge(keyType, keys, Integer::sum);
+                        result.total += keys;
+                    }
                     break;
                 case BY_PURPOSE:
-                    loadByPurpose(conn);
+                    if (purpose == null || purpose.trim().isEmpty()) purpose = "Not Specified";
+                    counts.merge(purpose, keys, Integer::sum);
+                    result.total += keys;
                     break;
                 case BY_QUANTITY:
-                    loadByQuantity(conn);
+                    recordsByQuantity.merge(qty, records, Integer::sum);
+                    result.total += keys;
+                    break;
+                case BY_CATEGORY:
+                    if (keyType == null || keyType.trim().isEmpty()) keyType = "Unknown";
+                    String parent = parents.getOrDefault(keyType.toLowerCase(Locale.ROOT), "Other");
+                    counts.merge(parent, keys, Integer::sum);
+                    result.total += keys;
                     break;
-            }
-            updateUI();
-        } catch (SQLException e) {
-            ModernDialog.showError(this,
-                "Error loading statistics: " + e.getMessage(),
-                "Database Error");
-            e.printStackTrace();
-        }
-    }
-    
-    private void loadTotalKeys(Connection conn) throws SQLException {
-        String sql = "SELECT COUNT(*), SUM(quantity) FROM duplicator";
-        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-            if (rs.next()) {
-                int recordCount = rs.getInt(1);
-                int keyCount = rs.getInt(2);
-                totalCount = keyCount;
-                statData.put("Total Records", recordCount);
-                statData.put("Total Keys Made", keyCount);
-            }
-        }
-    }
-    
-    private void loadByKeyType(Connection conn) throws SQLException {
-        String sql = "SELECT key_type, SUM(quantity) FROM duplicator GROUP BY key_type ORDER BY 2 DESC";
-        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                String type = rs.getString(1);
-                int count = rs.getInt(2);
-                if (type == null || type.trim().isEmpty()) type = "Not Specified";
-                // Exclude "Vehicles" as per requirement
-                if (!"Vehicles".equalsIgnoreCase(type)) {
-                    statData.put(type, count);
-                    totalCount += count;
-                }
             }
         }
-    }
-    
-    private void loadByPurpose(Connection conn) throws SQLException {
-        String sql = "SELECT purpose, SUM(quantity) FROM duplicator GROUP BY purpose ORDER BY 2 DESC";
-        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                String purpose = rs.getString(1);
-                int count = rs.getInt(2);
-                if (purpose == null || purpose.trim().isEmpty()) purpose = "Not Specified";
-                statData.put(purpose, count);
-                totalCount += count;
+
+        if (stat == StatType.TOTAL_KEYS) {
+            result.data.put("Total Records", recordCount);
+            result.data.put("Total Keys Made", result.total);
+        } else if (stat == StatType.BY_QUANTITY) {
+            for (Map.Entry<Integer, Integer> entry : recordsByQuantity.entrySet()) {
+                result.data.put("Quantity " + entry.getKey(), entry.getValue());
             }
+        } else {
+            // Sort by count desc
+            counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(e -> result.data.put(e.getKey(), e.getValue()));
         }
+        return result;
     }
     
-    private void loadByQuantity(Connection conn) throws SQLException {
-        String sql = "SELECT quantity, COUNT(*) FROM duplicator GROUP BY quantity ORDER BY quantity";
-        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-            while (rs.next()) {
-                int qty = rs.getInt(1);
-                int count = rs.getInt(2);
-                statData.put("Quantity " + qty, count);
-                totalCount += qty * count; // Total keys = quantity × record count
-            }
-        }
+    private static LocalDate toLocalDate(java.util.Date date) {
+        return date != null ? date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate() : null;
     }
     
-    private void loadByCategory(Connection conn) throws SQLException {
-        String sql = "SELECT key_type, SUM(quantity) FROM duplicator GROUP BY key_type";
-        try (Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-            Map<String, Integer> categoryCounts = new HashMap<>();
-            
-            while (rs.next()) {
-                String keyType = rs.getString(1);
-                int count = rs.getInt(2);
-                if (keyType == null || keyType.trim().isEmpty()) keyType = "Unknown";
-                
-                // Find parent category
-                String parent = "Other";
-                for (String p : AppConfig.getParentCategories()) {
-                    for (String child : AppConfig.getChildCategories(p)) {
-                        if (child.equalsIgnoreCase(keyType)) {
-                            parent = p;
-                            break;
-                        }
-                    }
-                    if (!"Other".equals(parent)) break;
-                }
-                
-                categoryCounts.put(parent, categoryCounts.getOrDefault(parent, 0) + count);
-                totalCount += count;
-            }
-            
-            // Sort by count desc
-            categoryCounts.entrySet().stream()
-                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
-                .forEach(e -> statData.put(e.getKey(), e.getValue()));
-        }
+    // COUNT/SUM come back as BIGINT or DECIMAL, and SUM() is NULL when no row matched
+    private static int toInt(Object value) {
+        return value != null ? ((Number) value).intValue() : 0;
     }
     
     private void updateUI() {
@@ -468,4 +527,10 @@ public class KeyStatisticsWindow extends JFrame {
             this.value = value;
         }
     }
+    
+    // Result of one background load
+    private static class StatResult {
+        final Map<String, Integer> data = new LinkedHashMap<>();
+        int total = 0;
+    }
 }
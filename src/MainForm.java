@@ -2,7 +2,6 @@ package src;
 
 import javax.swing.*;
 import javax.swing.border.LineBorder;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.image.BufferedImage;
@@ -24,6 +23,15 @@ import javax.imageio.ImageIO;
 import javax.swing.filechooser.FileNameExtensionFilter;
 
 public class MainForm extends JFrame {
+    // Report and export queries; package-private so QueryPlanCheck can EXPLAIN them
+    static final String TODAYS_RECORDS_SQL =
+        "SELECT duplicator_id, name, phone_number, key_no, key_type, purpose, quantity, amount " +
+        "FROM duplicator WHERE date_added = ? ORDER BY duplicator_id";
+    static final String EXPORT_COUNT_SQL = "SELECT COUNT(*) FROM duplicator WHERE date_added BETWEEN ? AND ?";
+    static final String EXPORT_SQL =
+        "SELECT duplicator_id, name, phone_number, id_no, key_no, key_type, purpose, vehicle_no, date_added, time_added, remarks, quantity, amount " +
+        "FROM duplicator WHERE date_added BETWEEN ? AND ? ORDER BY duplicator_id DESC";
+
     // Form components
     private JTextField txtName;
     private JTextField txtPhoneNumber;
@@ -43,6 +51,7 @@ public class MainForm extends JFrame {
     private JButton btnSave;
     private JButton btnReset;
     private JTable tblKeyEntries;
+    private KeyEntriesTableModel keyEntriesModel;
     private JLabel statusBar;
     private JDateChooser dateChooser;
     private JPanel imageButtonPanel;
@@ -66,6 +75,8 @@ public class MainForm extends JFrame {
         initComponents();
         initMenuBar();
         initShortcuts();
+        // Phone/ID autofill is served from the record cache
+        RecordCache.reloadAsync();
         setTitle("KeyBase - Key Management System");
         setSize(1120, 740);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -225,20 +236,59 @@ public class MainForm extends JFrame {
 
     private void printTodaysRecords() {
         java.sql.Date today = new java.sql.Date(System.currentTimeMillis());
-        String sql = "SELECT duplicator_id, name, phone_number, key_no, key_type, purpose, quantity, amount " +
-                     "FROM duplicator WHERE date_added = ? ORDER BY duplicator_id";
+        SimpleDateFormat df = new SimpleDateFormat("dd-MM-yyyy");
+        String todayLabel = df.format(new Date(today.getTime()));
+
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        QueryExecutor.submit(task -> buildTodaysReport(today, todayLabel), report -> {
+            setCursor(Cursor.getDefaultCursor());
+            if (report == null) {
+                ModernDialog.showInfo(this,
+                    "No records found for today (" + todayLabel + ").",
+                    "Print Records");
+                return;
+            }
 
+            JTextArea printArea = new JTextArea(report);
+            printArea.setFont(new Font("Monospaced", Font.PLAIN, 11));
+
+            try {
+                boolean jobStarted = printArea.print();
+                if (jobStarted) {
+                    ModernDialog.showInfo(this,
+                        "Print job sent successfully.",
+                        "Print Records");
+                } else {
+                    ModernDialog.showWarning(this,
+                        "Print job was cancelled.",
+                        "Print Records");
+                }
+            } catch (java.awt.print.PrinterException ex) {
+                ModernDialog.showError(this,
+                    "Error printing records: " + ex.getMessage(),
+                    "Print Error");
+            }
+        }, ex -> {
+            setCursor(Cursor.getDefaultCursor());
+            ModernDialog.showError(this,
+                "Error retrieving today's records: " + ex.getMessage(),
+                "Database Error");
+        });
+    }
+
+    /**
+     * Plain-text report of the given day's records, or null if there are none.
+     * Runs on the query executor.
+     */
+    private String buildTodaysReport(java.sql.Date today, String todayLabel) throws SQLException {
         try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(TODAYS_RECORDS_SQL)) {
 
             stmt.setDate(1, today);
 
             try (ResultSet rs = stmt.executeQuery()) {
-                SimpleDateFormat df = new SimpleDateFormat("dd-MM-yyyy");
-                Date utilToday = new Date(today.getTime());
-
                 StringBuilder report = new StringBuilder();
-                report.append("KeyBase Records for ").append(df.format(utilToday)).append('\n');
+                report.append("KeyBase Records for ").append(todayLabel).append('\n');
                 report.append("============================================\n\n");
 
                 int count = 0;
@@ -260,48 +310,22 @@ public class MainForm extends JFrame {
                     totalQuantity += quantity;
                     totalAmount += amount;
 
-                        report.append(String.format("%d. SN: %d%n", count, recordId));
+                    report.append(String.format("%d. SN: %d%n", count, recordId));
                     report.append(String.format("   Name: %s | Phone: %s%n", name, phone));
                     report.append(String.format("   Key: %s | Type: %s | Purpose: %s%n", keyNo, keyType, purpose));
                     report.append(String.format("   Quantity: %d | Amount: %.2f%n%n", quantity, amount));
                 }
 
                 if (count == 0) {
-                    ModernDialog.showInfo(this,
-                        "No records found for today (" + df.format(utilToday) + ").",
-                        "Print Records");
-                    return;
+                    return null;
                 }
 
                 report.append("Summary\n-------\n");
                 report.append(String.format("Total records: %d%n", count));
                 report.append(String.format("Total quantity: %d%n", totalQuantity));
                 report.append(String.format("Total amount: %.2f%n", totalAmount));
-
-                JTextArea printArea = new JTextArea(report.toString());
-                printArea.setFont(new Font("Monospaced", Font.PLAIN, 11));
-
-                try {
-                    boolean jobStarted = printArea.print();
-                    if (jobStarted) {
-                        ModernDialog.showInfo(this,
-                            "Print job sent successfully.",
-                            "Print Records");
-                    } else {
-                        ModernDialog.showWarning(this,
-                            "Print job was cancelled.",
-                            "Print Records");
-                    }
-                } catch (java.awt.print.PrinterException ex) {
-                    ModernDialog.showError(this,
-                        "Error printing records: " + ex.getMessage(),
-                        "Print Error");
-                }
+                return report.toString();
             }
-        } catch (SQLException ex) {
-            ModernDialog.showError(this,
-                "Error retrieving today's records: " + ex.getMessage(),
-                "Database Error");
         }
     }
 
@@ -477,6 +501,7 @@ public class MainForm extends JFrame {
             BorderFactory.createLineBorder(new Color(109, 193, 210), 1),
             BorderFactory.createEmptyBorder(2, 5, 2, 5)
         ));
+        CustomerLookup.attach(txtPhoneNumber, "phone_number", this::fillFromCustomer);
         txtPhoneNumber.addKeyListener(new KeyAdapter() {
             @Override
             public void keyPressed(KeyEvent e) {
@@ -657,6 +682,7 @@ public class MainForm extends JFrame {
             BorderFactory.createLineBorder(new Color(109, 193, 210), 1),
             BorderFactory.createEmptyBorder(2, 5, 2, 5)
         ));
+        CustomerLookup.attach(txtIdNo, "id_no", this::fillFromCustomer);
         txtIdNo.addKeyListener(new KeyAdapter() {
             @Override
             public void keyPressed(KeyEvent e) {
@@ -1176,15 +1202,14 @@ public class MainForm extends JFrame {
         add(formPanel, BorderLayout.NORTH);
         
         // Create table for key entries at the bottom
-    String[] columnNames = {"SN", "Name", "Phone", "Vehicle No", "Key No/Model", "Key Type", "Purpose", "ID No", "Date", "Remarks", "Quantity", "Amount"};
-        DefaultTableModel model = new DefaultTableModel(columnNames, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make table non-editable
-            }
-        };
-        
-        tblKeyEntries = new JTable(model) {
+        // Rows are paged in from the database as they scroll into view
+        keyEntriesModel = new KeyEntriesTableModel();
+        keyEntriesModel.setErrorHandler(e -> JOptionPane.showMessageDialog(this,
+            "Error loading key entries: " + e.getMessage(),
+            "Database Error",
+            JOptionPane.ERROR_MESSAGE));
+        
+        tblKeyEntries = new JTable(keyEntriesModel) {
             @Override
             public Component prepareRenderer(javax.swing.table.TableCellRenderer renderer, int row, int column) {
                 Component c = super.prepareRenderer(renderer, row, column);
@@ -1613,14 +1638,12 @@ public class MainForm extends JFrame {
                 String fileName = cacheFile.getName();
                 File finalFile = new File(imageDir, fileName);
                 
-                // Copy the file from cache to actual directory
-                BufferedImage img = ImageIO.read(cacheFile);
-                ImageIO.write(img, "JPG", finalFile);
+                // Move the file from cache to actual directory as captured
+                ImageFileHelper.moveFile(cacheFile, finalFile);
                 
                 finalImagePath = finalFile.getAbsolutePath();
-                
-                // Delete the cache file
-                cacheFile.delete();
+
+                ImageFileHelper.processSavedPhoto(finalImagePath);
             } catch (Exception e) {
                 JOptionPane.showMessageDialog(this,
                     "Error moving image from cache: " + e.getMessage(),
@@ -1911,6 +1934,35 @@ public class MainForm extends JFrame {
         txtName.requestFocus();
     }
     
+    /**
+     * Fill the customer fields from an earlier visit picked in the phone or
+     * ID number autofill. Name and vehicle number are only filled when empty,
+     * so nothing the operator already typed is lost.
+     */
+    private void fillFromCustomer(Duplicator previous) {
+        fillIfEmpty(txtName, previous.getName());
+        if (isUsableValue(previous.getPhoneNumber())) {
+            txtPhoneNumber.setText(previous.getPhoneNumber());
+        }
+        if (isUsableValue(previous.getIdNo())) {
+            txtIdNo.setText(previous.getIdNo());
+        }
+        if (txtVehicleNo.isVisible()) {
+            fillIfEmpty(txtVehicleNo, previous.getVehicleNo());
+        }
+    }
+    
+    private void fillIfEmpty(JTextField field, String value) {
+        if (field.getText().trim().isEmpty() && isUsableValue(value)) {
+            field.setText(value);
+        }
+    }
+    
+    // "deleted" is the placeholder left by clearing a record's data
+    private boolean isUsableValue(String value) {
+        return value != null && !value.trim().isEmpty() && !"deleted".equalsIgnoreCase(value.trim());
+    }
+    
     private void updateChildCategories() {
         String parent = (String) cmbKeyCategory.getSelectedItem();
         cmbVehicleType.removeAllItems();
@@ -1937,40 +1989,7 @@ public class MainForm extends JFrame {
     }
     
     private void loadKeyEntries() {
-        DefaultTableModel model = (DefaultTableModel) tblKeyEntries.getModel();
-        model.setRowCount(0); // Clear existing rows
-        
-        try (ResultSet rs = Duplicator.getAllDuplicators()) {
-            SimpleDateFormat dateFormat = new SimpleDateFormat("dd-MM-yyyy");
-            
-            while (rs.next()) {
-                String dateStr = "";
-                if (rs.getDate("date_added") != null) {
-                    dateStr = dateFormat.format(rs.getDate("date_added"));
-                }
-                
-                Object[] row = {
-                    rs.getInt("duplicator_id"),
-                    rs.getString("name"),
-                    rs.getString("phone_number"),
-                    rs.getString("vehicle_no"),
-                    rs.getString("key_no"),
-                    rs.getString("key_type"),
-                    rs.getString("purpose"),
-                    rs.getString("id_no"),
-                    dateStr,
-                    rs.getString("remarks"),
-                    rs.getInt("quantity"),
-                    String.format("%.2f", rs.getDouble("amount"))
-                };
-                model.addRow(row);
-            }
-        } catch (SQLException e) {
-            JOptionPane.showMessageDialog(this,
-                "Error loading key entries: " + e.getMessage(),
-                "Database Error",
-                JOptionPane.ERROR_MESSAGE);
-        }
+        keyEntriesModel.reload();
     }
     
     // Public method to refresh the table (called by dialogs)
@@ -2061,21 +2080,76 @@ public class MainForm extends JFrame {
                 columns.add(new SimpleXlsxExporter.ColumnSpec(field.getHeader(), field.getWidth(), field.getCellType()));
             }
 
-            List<List<Object>> rows = new ArrayList<>();
-            SimpleDateFormat dateFormat = new SimpleDateFormat("dd-MM-yyyy");
+            SimpleXlsxExporter.Orientation orientation = SimpleXlsxExporter.parseOrientation(AppConfig.getExportOrientation());
+            final List<ExportField> fields = selectedFields;
+
+            ProgressMonitor monitor = new ProgressMonitor(this, "Exporting records...", null, 0, 100);
+            monitor.setMillisToDecideToPopup(300);
+            final QueryExecutor.Task<?>[] exportTask = new QueryExecutor.Task<?>[1];
+            exportTask[0] = QueryExecutor.submit(task -> {
+                List<List<Object>> rows = loadExportRows(startDate, endDate, fields, task);
+                if (task.isCancelled()) {
+                    return null;
+                }
+                SimpleXlsxExporter.export(filePath, "Key Records", columns, rows, orientation);
+                return rows.size();
+            }, exported -> {
+                monitor.close();
+                JOptionPane.showMessageDialog(this,
+                    exported + " record(s) exported to:\n" + filePath,
+                    "Export Successful",
+                    JOptionPane.INFORMATION_MESSAGE);
+            }, ex -> {
+                monitor.close();
+                String prefix = ex instanceof SQLException ? "Error retrieving records: " : "Error exporting data: ";
+                JOptionPane.showMessageDialog(this,
+                    prefix + ex.getMessage(),
+                    "Export Error",
+                    JOptionPane.ERROR_MESSAGE);
+            }, percent -> {
+                if (monitor.isCanceled()) {
+                    exportTask[0].cancel();
+                    monitor.close();
+                } else {
+                    monitor.setProgress(percent);
+                }
+            });
+        }
+    }
 
-            String sql =
-                "SELECT duplicator_id, name, phone_number, id_no, key_no, key_type, purpose, vehicle_no, date_added, time_added, remarks, quantity, amount " +
-                "FROM duplicator WHERE date_added BETWEEN ? AND ? ORDER BY duplicator_id DESC";
-            try (Connection conn = DatabaseConnection.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
+    /**
+     * Read the export rows for a date range. Runs on the query executor;
+     * reports progress up to 90% (the rest is the workbook write) and stops
+     * early if the task is cancelled.
+     */
+    private List<List<Object>> loadExportRows(java.sql.Date startDate, java.sql.Date endDate,
+                                              List<ExportField> selectedFields, QueryExecutor.Task<?> task) throws SQLException {
+        List<List<Object>> rows = new ArrayList<>();
+        SimpleDateFormat dateFormat = new SimpleDateFormat("dd-MM-yyyy");
+        SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            int total = 0;
+            try (PreparedStatement countStmt = conn.prepareStatement(EXPORT_COUNT_SQL)) {
+                countStmt.setDate(1, startDate);
+                countStmt.setDate(2, endDate);
+                try (ResultSet rs = countStmt.executeQuery()) {
+                    if (rs.next()) {
+                        total = rs.getInt(1);
+                    }
+                }
+            }
 
+            try (PreparedStatement stmt = conn.prepareStatement(EXPORT_SQL)) {
                 stmt.setDate(1, startDate);
                 stmt.setDate(2, endDate);
 
                 try (ResultSet rs = stmt.executeQuery()) {
 
                     while (rs.next()) {
+                        if (task.isCancelled()) {
+                            return rows;
+                        }
                         int id = rs.getInt("duplicator_id");
                         String name = blankIfNull(rs.getString("name"));
                         String phone = blankIfNull(rs.getString("phone_number"));
@@ -2092,7 +2166,6 @@ public class MainForm extends JFrame {
                         } catch (SQLException timeEx) {
                             // Column might not exist in older databases
                         }
-                        SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
                         String timeStr = timeAdded != null ? timeFormat.format(timeAdded) : "";
                         String remarks = blankIfNull(rs.getString("remarks"));
                         int quantity = rs.getInt("quantity");
@@ -2117,33 +2190,16 @@ public class MainForm extends JFrame {
                             }
                         }
                         rows.add(row);
+                        if (total > 0 && rows.size() % 200 == 0) {
+                            task.setProgressPercent(rows.size() * 90 / total);
+                        }
                     }
 
                 }
-
-            } catch (SQLException ex) {
-                JOptionPane.showMessageDialog(this,
-                    "Error retrieving records: " + ex.getMessage(),
-                    "Export Error",
-                    JOptionPane.ERROR_MESSAGE);
-                return;
-            }
-
-            SimpleXlsxExporter.Orientation orientation = SimpleXlsxExporter.parseOrientation(AppConfig.getExportOrientation());
-
-            try {
-                SimpleXlsxExporter.export(filePath, "Key Records", columns, rows, orientation);
-                JOptionPane.showMessageDialog(this,
-                    rows.size() + " record(s) exported to:\n" + filePath,
-                    "Export Successful",
-                    JOptionPane.INFORMATION_MESSAGE);
-            } catch (IOException ex) {
-                JOptionPane.showMessageDialog(this,
-                    "Error exporting data: " + ex.getMessage(),
-                    "Export Error",
-                    JOptionPane.ERROR_MESSAGE);
             }
         }
+        task.setProgressPercent(90);
+        return rows;
     }
 
     private String ensureXlsxExtension(String path) {
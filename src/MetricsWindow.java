@@ -4,10 +4,12 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.awt.geom.*;
+import java.awt.image.BufferedImage;
 import java.sql.*;
 import java.text.DecimalFormat;
 import java.text.SimpleDateFormat;
 import java.time.*;
+import java.time.format.TextStyle;
 import java.time.temporal.TemporalAdjusters;
 import java.util.*;
 import java.util.List;
@@ -59,6 +61,10 @@ public class MetricsWindow extends JFrame {
     private List<DataPoint> chartData = new ArrayList<>();
     private double averageValue;
     private double changePercent;
+    private QueryExecutor.Task<LoadResult> loadTask;
+    private QueryExecutor.Task<Void> prefetchTask;
+    // Breakdowns of the period on screen, shared by all metrics
+    private LoadResult loaded;
     
     public MetricsWindow(Frame owner) {
         setTitle("Sales Metrics & Analytics");
@@ -362,170 +368,179 @@ public class MetricsWindow extends JFrame {
     }
     
     private void loadData() {
-        chartData.clear();
-        
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            switch (currentMetric) {
-                case TOTAL_SALES:
-                    loadTotalSales(conn);
-                    break;
-                case BY_CATEGORY:
-                    loadSalesByCategory(conn);
-                    break;
-                case BY_KEY_TYPE:
-                    loadSalesByKeyType(conn);
-                    break;
-                case BY_PURPOSE:
-                    loadSalesByPurpose(conn);
-                    break;
-                case BY_QUANTITY:
-                    loadSalesByQuantity(conn);
-                    break;
-            }
-            
-            calculateStats();
-            updateUI();
-            chartPanel.repaint();
-            
-        } catch (SQLException e) {
-            ModernDialog.showError(this,
-                "Error loading sales data: " + e.getMessage(),
-                "Database Error");
+        // Snapshot the selection; the query runs off the EDT while the user may click on
+        final Period period = currentPeriod;
+        final LocalDate start = periodStart(period, currentDate);
+        final LocalDate end = periodEnd(period, currentDate);
+
+        QueryExecutor.cancel(loadTask);
+        // Another metric of the loaded period, or a period prefetched by
+        // prefetchNeighbours: shown straight from the cache
+        SalesBreakdown cached = SalesBreakdown.getCached(start, end);
+        LocalDate prevStart = previousStart(period, start);
+        SalesBreakdown cachedPrevious = SalesBreakdown.getCached(prevStart, periodEnd(period, prevStart));
+        if (cached != null && cachedPrevious != null) {
+            loaded = new LoadResult(period, cached, cachedPrevious.getTotal());
+            showLoaded();
+            prefetchNeighbours(period, start);
+            return;
         }
-    }
-    
-    private void loadTotalSales(Connection conn) throws SQLException {
-        String sql = buildTotalSalesQuery();
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            setDateParameters(ps);
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                String label = rs.getString(1);
-                double value = rs.getDouble(2);
-                chartData.add(new DataPoint(label, value));
+
+        loadTask = QueryExecutor.submit(task -> {
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                SalesBreakdown breakdown = SalesBreakdown.load(conn, start, end);
+                Double previousTotal;
+                try {
+                    previousTotal = SalesBreakdown.load(conn, prevStart, periodEnd(period, prevStart)).getTotal();
+                } catch (SQLException e) {
+                    previousTotal = null;
+                }
+                return new LoadResult(period, breakdown, previousTotal);
             }
-        }
+        }, result -> {
+            loaded = result;
+            showLoaded();
+            prefetchNeighbours(period, start);
+        }, e -> ModernDialog.showError(this,
+            "Error loading sales data: " + e.getMessage(),
+            "Database Error"));
     }
-    
-    private void loadSalesByKeyType(Connection conn) throws SQLException {
-        String sql = buildSalesByDimensionQuery("key_type");
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            setDateParameters(ps);
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                String label = rs.getString(1);
-                if (label == null || label.trim().isEmpty()) label = "Unknown";
-                // Exclude "Vehicles" from key type breakdown
-                if ("Vehicles".equalsIgnoreCase(label)) continue;
-                double value = rs.getDouble(2);
-                chartData.add(new DataPoint(label, value));
+
+    /**
+     * Load the periods the < and > buttons lead to in the background, so
+     * navigating shows them at once. The next period needs only its own
+     * breakdown (its comparison is the current one); the previous period's
+     * is already loaded, so the period before it is fetched for its
+     * comparison. The breakdowns go to the bounded {@link QueryResultCache}.
+     */
+    private void prefetchNeighbours(Period period, LocalDate start) {
+        QueryExecutor.cancel(prefetchTask);
+        List<LocalDate> starts = new ArrayList<>();
+        for (LocalDate neighbour : new LocalDate[] {nextStart(period, start),
+                previousStart(period, previousStart(period, start))}) {
+            if (SalesBreakdown.getCached(neighbour, periodEnd(period, neighbour)) == null) {
+                starts.add(neighbour);
             }
         }
-    }
-    
-    private void loadSalesByPurpose(Connection conn) throws SQLException {
-        String sql = buildSalesByDimensionQuery("purpose");
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            setDateParameters(ps);
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                String label = rs.getString(1);
-                if (label == null || label.trim().isEmpty()) label = "Unknown";
-                double value = rs.getDouble(2);
-                chartData.add(new DataPoint(label, value));
-            }
+        if (starts.isEmpty()) {
+            return;
         }
-    }
-    
-    private void loadSalesByQuantity(Connection conn) throws SQLException {
-        String sql = "SELECT quantity, SUM(amount) FROM duplicator WHERE date_added >= ? AND date_added <= ? GROUP BY quantity ORDER BY quantity";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            setDateParameters(ps);
-            ResultSet rs = ps.executeQuery();
-            while (rs.next()) {
-                int qty = rs.getInt(1);
-                double value = rs.getDouble(2);
-                chartData.add(new DataPoint("Qty " + qty, value));
+        prefetchTask = QueryExecutor.submitBackground(task -> {
+            try (Connection conn = DatabaseConnection.getConnection()) {
+                for (LocalDate neighbour : starts) {
+                    if (task.isCancelled()) {
+                        break;
+                    }
+                    SalesBreakdown.load(conn, neighbour, periodEnd(period, neighbour));
+                }
             }
-        }
+            return null;
+        }, null, e -> System.err.println("Metrics prefetch failed: " + e.getMessage()));
     }
-    
-    private void loadSalesByCategory(Connection conn) throws SQLException {
-        String sql = buildSalesByDimensionQuery("key_type");
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            setDateParameters(ps);
-            ResultSet rs = ps.executeQuery();
-            
-            Map<String, Double> categorySales = new HashMap<>();
-            
-            while (rs.next()) {
-                String keyType = rs.getString(1);
-                if (keyType == null || keyType.trim().isEmpty()) keyType = "Unknown";
-                double value = rs.getDouble(2);
-                
-                // Find parent category
-                String parent = "Other";
-                for (String p : AppConfig.getParentCategories()) {
-                    for (String child : AppConfig.getChildCategories(p)) {
-                        if (child.equalsIgnoreCase(keyType)) {
-                            parent = p;
-                            break;
-                        }
+
+    @Override
+    public void dispose() {
+        QueryExecutor.cancel(loadTask);
+        QueryExecutor.cancel(prefetchTask);
+        super.dispose();
+    }
+
+    private void showLoaded() {
+        chartData = toPoints(currentMetric, loaded.period, loaded.breakdown);
+        calculateStats(loaded.previousTotal);
+        updateUI();
+        chartPanel.repaint();
+    }
+
+    private static List<DataPoint> toPoints(MetricType metric, Period period, SalesBreakdown breakdown) {
+        List<DataPoint> points = new ArrayList<>();
+        switch (metric) {
+            case BY_CATEGORY:
+                points = sortedByValue(breakdown.getByCategory(), false);
+                break;
+            case BY_KEY_TYPE:
+                // Exclude "Vehicles" from key type breakdown
+                points = sortedByValue(breakdown.getByKeyType(), true);
+                break;
+            case BY_PURPOSE:
+                points = sortedByValue(breakdown.getByPurpose(), false);
+                break;
+            case BY_QUANTITY:
+                Map<Integer, Double> byQuantity = new TreeMap<>();
+                for (Map.Entry<Integer, Double> entry : breakdown.getByQuantity().entrySet()) {
+                    int qty = entry.getKey() != null ? entry.getKey() : 0;
+                    byQuantity.merge(qty, entry.getValue(), Double::sum);
+                }
+                for (Map.Entry<Integer, Double> entry : byQuantity.entrySet()) {
+                    points.add(new DataPoint("Qty " + entry.getKey(), entry.getValue()));
+                }
+                break;
+            case TOTAL_SALES:
+            default:
+                if (period == Period.MONTH) {
+                    // Daily breakdown for a month
+                    for (Map.Entry<Integer, Double> entry : breakdown.getByDay().entrySet()) {
+                        points.add(new DataPoint(String.format("%02d", entry.getKey()), entry.getValue()));
+                    }
+                } else {
+                    // Monthly breakdown for a year
+                    for (Map.Entry<Integer, Double> entry : breakdown.getByMonth().entrySet()) {
+                        String month = Month.of(entry.getKey()).getDisplayName(TextStyle.SHORT, Locale.getDefault());
+                        points.add(new DataPoint(month, entry.getValue()));
                     }
-                    if (!"Other".equals(parent)) break;
                 }
-                
-                categorySales.put(parent, categorySales.getOrDefault(parent, 0.0) + value);
-            }
-            
-            for (Map.Entry<String, Double> entry : categorySales.entrySet()) {
-                chartData.add(new DataPoint(entry.getKey(), entry.getValue()));
-            }
-            
-            // Sort by value descending
-            chartData.sort((a, b) -> Double.compare(b.value, a.value));
+                break;
         }
+        return points;
+    }
+
+    /**
+     * Points of a breakdown by name, largest first; missing names are shown
+     * as "Unknown".
+     */
+    private static List<DataPoint> sortedByValue(Map<String, Double> values, boolean excludeVehicles) {
+        Map<String, Double> byLabel = new LinkedHashMap<>();
+        for (Map.Entry<String, Double> entry : values.entrySet()) {
+            String label = entry.getKey();
+            if (label == null || label.trim().isEmpty()) label = "Unknown";
+            if (excludeVehicles && "Vehicles".equalsIgnoreCase(label)) continue;
+            byLabel.merge(label, entry.getValue(), Double::sum);
+        }
+        List<DataPoint> points = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : byLabel.entrySet()) {
+            points.add(new DataPoint(entry.getKey(), entry.getValue()));
+        }
+        points.sort((a, b) -> Double.compare(b.value, a.value));
+        return points;
     }
     
-    private String buildTotalSalesQuery() {
-        switch (currentPeriod) {
+    private static LocalDate periodStart(Period period, LocalDate date) {
+        switch (period) {
             case MONTH:
-                // Daily breakdown for a month
-                return "SELECT FORMATDATETIME(date_added, 'dd'), SUM(amount) FROM duplicator WHERE date_added >= ? AND date_added <= ? GROUP BY FORMATDATETIME(date_added, 'dd') ORDER BY CAST(FORMATDATETIME(date_added, 'dd') AS INT)";
+                return date.with(TemporalAdjusters.firstDayOfMonth());
             case YEAR:
-                // Monthly breakdown for a year
-                return "SELECT FORMATDATETIME(date_added, 'MMM'), SUM(amount) FROM duplicator WHERE date_added >= ? AND date_added <= ? GROUP BY FORMATDATETIME(date_added, 'MM'), FORMATDATETIME(date_added, 'MMM') ORDER BY FORMATDATETIME(date_added, 'MM')";
+                return date.with(TemporalAdjusters.firstDayOfYear());
             default:
-                return "SELECT 'Total', SUM(amount) FROM duplicator WHERE date_added >= ? AND date_added <= ?";
+                return date;
         }
     }
     
-    private String buildSalesByDimensionQuery(String column) {
-        return "SELECT " + column + ", SUM(amount) FROM duplicator WHERE date_added >= ? AND date_added <= ? GROUP BY " + column + " ORDER BY 2 DESC";
-    }
-    
-    private void setDateParameters(PreparedStatement ps) throws SQLException {
-        LocalDate start, end;
-        
-        switch (currentPeriod) {
+    private static LocalDate periodEnd(Period period, LocalDate date) {
+        switch (period) {
             case MONTH:
-                start = currentDate.with(TemporalAdjusters.firstDayOfMonth());
-                end = currentDate.with(TemporalAdjusters.lastDayOfMonth());
-                break;
+                return date.with(TemporalAdjusters.lastDayOfMonth());
             case YEAR:
-                start = currentDate.with(TemporalAdjusters.firstDayOfYear());
-                end = currentDate.with(TemporalAdjusters.lastDayOfYear());
-                break;
+                return date.with(TemporalAdjusters.lastDayOfYear());
             default:
-                start = currentDate;
-                end = currentDate;
+                return date;
         }
-        
-        ps.setDate(1, java.sql.Date.valueOf(start));
-        ps.setDate(2, java.sql.Date.valueOf(end));
     }
     
-    private void calculateStats() {
+    /**
+     * Average of the loaded points and % change against the previous period
+     * total (null when that query failed).
+     */
+    private void calculateStats(Double previousTotal) {
         if (chartData.isEmpty()) {
             averageValue = 0;
             changePercent = 0;
@@ -539,47 +554,21 @@ public class MetricsWindow extends JFrame {
         averageValue = sum / chartData.size();
         
         // Calculate % change vs previous period
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            double previousSum = getPreviousPeriodTotal(conn);
-            double currentSum = sum;
-            if (previousSum > 0) {
-                changePercent = ((currentSum - previousSum) / previousSum) * 100.0;
-            } else {
-                changePercent = currentSum > 0 ? 100.0 : 0.0;
-            }
-        } catch (SQLException e) {
+        if (previousTotal == null) {
             changePercent = 0;
+        } else if (previousTotal > 0) {
+            changePercent = ((sum - previousTotal) / previousTotal) * 100.0;
+        } else {
+            changePercent = sum > 0 ? 100.0 : 0.0;
         }
     }
     
-    private double getPreviousPeriodTotal(Connection conn) throws SQLException {
-        LocalDate prevStart, prevEnd;
-        
-        switch (currentPeriod) {
-            case MONTH:
-                LocalDate prevMonth = currentDate.minusMonths(1);
-                prevStart = prevMonth.with(TemporalAdjusters.firstDayOfMonth());
-                prevEnd = prevMonth.with(TemporalAdjusters.lastDayOfMonth());
-                break;
-            case YEAR:
-                LocalDate prevYear = currentDate.minusYears(1);
-                prevStart = prevYear.with(TemporalAdjusters.firstDayOfYear());
-                prevEnd = prevYear.with(TemporalAdjusters.lastDayOfYear());
-                break;
-            default:
-                return 0;
-        }
-        
-        String sql = "SELECT SUM(amount) FROM duplicator WHERE date_added >= ? AND date_added <= ?";
-        try (PreparedStatement ps = conn.prepareStatement(sql)) {
-            ps.setDate(1, java.sql.Date.valueOf(prevStart));
-            ps.setDate(2, java.sql.Date.valueOf(prevEnd));
-            ResultSet rs = ps.executeQuery();
-            if (rs.next()) {
-                return rs.getDouble(1);
-            }
-        }
-        return 0;
+    private static LocalDate previousStart(Period period, LocalDate start) {
+        return period == Period.YEAR ? start.minusYears(1) : start.minusMonths(1);
+    }
+    
+    private static LocalDate nextStart(Period period, LocalDate start) {
+        return period == Period.YEAR ? start.plusYears(1) : start.plusMonths(1);
     }
     
     private void updateUI() {
@@ -614,65 +603,124 @@ public class MetricsWindow extends JFrame {
         btnNextPeriod.setEnabled(!currentDate.isAfter(LocalDate.now())); // Don't go into future
     }
     
-    // Chart rendering panel
+    /**
+     * Line chart of chartData. Grid, axes, line, points and labels are drawn
+     * once into an image, redrawn only when the data, the size or the screen
+     * scale change; hovering paints the highlighted point and its tooltip
+     * (or, with nothing hovered, the peak badge) over that image and
+     * repaints just the area they cover.
+     */
     private class ChartPanel extends JPanel {
         private static final int PADDING = 60;
+        private static final int GRID_LINES = 5;
+        private static final double HOVER_DISTANCE = 30; // pixels
+        private static final int TOOLTIP_HEIGHT = 48;
+        
+        private final Font axisFont = new Font("Segoe UI", Font.PLAIN, 11);
+        private final Font labelFont = new Font("Segoe UI", Font.PLAIN, 10);
+        private final Font badgeFont = new Font("Segoe UI", Font.BOLD, 12);
+        private final Font tooltipValueFont = new Font("Segoe UI", Font.BOLD, 11);
+        private final DecimalFormat valueFormat = new DecimalFormat("#,##0.00");
         
         // Tooltip state for chart hover
         private int hoveredPointIndex = -1;
         private Point mousePosition = null;
         
+        // Point positions of layoutData at layoutWidth x layoutHeight
+        private List<DataPoint> layoutData;
+        private int layoutWidth;
+        private int layoutHeight;
+        private double[] pointX = new double[0];
+        private double[] pointY = new double[0];
+        private double maxValue;
+        private int peakIndex;
+        
+        // Static layer for the current layout, in device pixels
+        private BufferedImage chartLayer;
+        private double layerScale;
+        
         public ChartPanel() {
             // Add mouse motion listener for tooltip
             addMouseMotionListener(new MouseAdapter() {
                 @Override
                 public void mouseMoved(MouseEvent e) {
                     mousePosition = e.getPoint();
+                    int previous = hoveredPointIndex;
                     updateHoveredPoint();
-                    repaint();
+                    if (hoveredPointIndex != previous) {
+                        repaintOverlay(previous);
+                        repaintOverlay(hoveredPointIndex);
+                    }
                 }
             });
             
             addMouseListener(new MouseAdapter() {
                 @Override
                 public void mouseExited(MouseEvent e) {
+                    int previous = hoveredPointIndex;
                     hoveredPointIndex = -1;
                     mousePosition = null;
-                    repaint();
+                    if (previous != -1) {
+                        repaintOverlay(previous);
+                        repaintOverlay(-1);
+                    }
                 }
             });
         }
         
-        private void updateHoveredPoint() {
-            if (chartData.isEmpty() || mousePosition == null) {
-                hoveredPointIndex = -1;
-                return;
-            }
-            
+        /**
+         * Recompute the point positions if the data or the size changed;
+         * returns true when they did.
+         */
+        private boolean updateLayout() {
             int width = getWidth();
             int height = getHeight();
-            double maxValue = 0;
-            for (DataPoint dp : chartData) {
-                if (dp.value > maxValue) maxValue = dp.value;
+            if (layoutData == chartData && layoutWidth == width && layoutHeight == height) {
+                return false;
+            }
+            layoutData = chartData;
+            layoutWidth = width;
+            layoutHeight = height;
+            
+            // Find max value and peak
+            maxValue = 0;
+            peakIndex = 0;
+            for (int i = 0; i < chartData.size(); i++) {
+                if (chartData.get(i).value > maxValue) {
+                    maxValue = chartData.get(i).value;
+                    peakIndex = i;
+                }
             }
-            if (maxValue == 0) maxValue = 1;
+            if (maxValue == 0) maxValue = 1; // Avoid division by zero
             
             int chartWidth = width - 2 * PADDING;
             int chartHeight = height - 2 * PADDING;
             double xStep = chartWidth / (double)(Math.max(1, chartData.size() - 1));
+            pointX = new double[chartData.size()];
+            pointY = new double[chartData.size()];
+            for (int i = 0; i < chartData.size(); i++) {
+                pointX[i] = PADDING + i * xStep;
+                pointY[i] = height - PADDING - (chartData.get(i).value / maxValue) * chartHeight;
+            }
+            
+            chartLayer = null;
+            updateHoveredPoint();
+            return true;
+        }
+        
+        private void updateHoveredPoint() {
+            updateLayout();
+            if (chartData.isEmpty() || mousePosition == null) {
+                hoveredPointIndex = -1;
+                return;
+            }
             
             // Find closest point within threshold
             double minDistance = Double.MAX_VALUE;
             int closestIndex = -1;
-            double threshold = 30; // pixels
-            
-            for (int i = 0; i < chartData.size(); i++) {
-                DataPoint dp = chartData.get(i);
-                double px = PADDING + i * xStep;
-                double py = height - PADDING - (dp.value / maxValue) * chartHeight;
-                
-                double distance = Math.sqrt(Math.pow(mousePosition.x - px, 2) + Math.pow(mousePosition.y - py, 2));
-                if (distance < threshold && distance < minDistance) {
+            for (int i = 0; i < pointX.length; i++) {
+                double distance = Math.hypot(mousePosition.x - pointX[i], mousePosition.y - pointY[i]);
+                if (distance < HOVER_DISTANCE && distance < minDistance) {
                     minDistance = distance;
                     closestIndex = i;
                 }
@@ -681,6 +729,20 @@ public class MetricsWindow extends JFrame {
             hoveredPointIndex = closestIndex;
         }
         
+        /**
+         * Repaint what the overlay covers for this hover state: the enlarged
+         * point and its tooltip, or the peak badge for -1.
+         */
+        private void repaintOverlay(int index) {
+            if (index >= pointX.length) {
+                return;
+            }
+            Rectangle area = index >= 0 ? hoverBounds(index) : badgeBounds();
+            if (area != null) {
+                repaint(area.x, area.y, area.width, area.height);
+            }
+        }
+        
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
@@ -699,199 +761,238 @@ public class MetricsWindow extends JFrame {
                 return;
             }
             
-            int width = getWidth();
-            int height = getHeight();
-            
-            // Find max value and peak
-            double maxValue = 0;
-            int peakIndex = 0;
-            for (int i = 0; i < chartData.size(); i++) {
-                if (chartData.get(i).value > maxValue) {
-                    maxValue = chartData.get(i).value;
-                    peakIndex = i;
-                }
-            }
-            
-            if (maxValue == 0) maxValue = 1; // Avoid division by zero
-            
-            // Draw subtle grid
-            g2.setColor(new Color(240, 245, 250));
-            int gridLines = 5;
-            for (int i = 0; i <= gridLines; i++) {
-                int y = height - PADDING - (int)((height - 2 * PADDING) * i / (double)gridLines);
-                g2.drawLine(PADDING, y, width - PADDING, y);
+            updateLayout();
+            // Rendered at the screen scale so the cached layer stays sharp on scaled displays
+            double scale = g2.getTransform().getScaleX();
+            if (chartLayer == null || layerScale != scale) {
+                chartLayer = renderLayer(scale);
+                layerScale = scale;
             }
+            g2.drawImage(chartLayer, 0, 0, layoutWidth, layoutHeight, null);
             
-            // Draw axes with softer color
-            g2.setColor(new Color(200, 210, 220));
-            g2.setStroke(new BasicStroke(2));
-            g2.drawLine(PADDING, height - PADDING, width - PADDING, height - PADDING); // X axis
-            g2.drawLine(PADDING, PADDING, PADDING, height - PADDING); // Y axis
-            
-            // Y-axis labels
-            g2.setColor(new Color(120, 130, 140));
-            g2.setFont(new Font("Segoe UI", Font.PLAIN, 11));
-            for (int i = 0; i <= gridLines; i++) {
-                int y = height - PADDING - (int)((height - 2 * PADDING) * i / (double)gridLines);
-                String label = String.format("%.0f", maxValue * i / gridLines);
-                g2.drawString(label, 5, y + 5);
-            }
-            
-            // Build gradient fill area path
-            int chartWidth = width - 2 * PADDING;
-            int chartHeight = height - 2 * PADDING;
-            double xStep = chartWidth / (double)(Math.max(1, chartData.size() - 1));
-            
-            Path2D.Double fillPath = new Path2D.Double();
-            fillPath.moveTo(PADDING, height - PADDING);
-            
-            for (int i = 0; i < chartData.size(); i++) {
-                DataPoint dp = chartData.get(i);
-                double x = PADDING + i * xStep;
-                double y = height - PADDING - (dp.value / maxValue) * chartHeight;
-                fillPath.lineTo(x, y);
+            if (hoveredPointIndex >= 0 && hoveredPointIndex < pointX.length) {
+                paintHover(g2, hoveredPointIndex);
+            } else {
+                paintPeakBadge(g2);
             }
-            
-            fillPath.lineTo(PADDING + (chartData.size() - 1) * xStep, height - PADDING);
-            fillPath.closePath();
-            
-            // Fill gradient (cyan to transparent)
-            GradientPaint gradientFill = new GradientPaint(
-                0, PADDING, new Color(109, 193, 210, 80),
-                0, height - PADDING, new Color(109, 193, 210, 5)
-            );
-            g2.setPaint(gradientFill);
-            g2.fill(fillPath);
-            
-            // Draw line chart with thicker stroke
-            g2.setColor(new Color(25, 118, 140));
-            g2.setStroke(new BasicStroke(3, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
-            
-            Path2D.Double linePath = new Path2D.Double();
-            for (int i = 0; i < chartData.size(); i++) {
-                DataPoint dp = chartData.get(i);
-                double x = PADDING + i * xStep;
-                double y = height - PADDING - (dp.value / maxValue) * chartHeight;
+        }
+        
+        private BufferedImage renderLayer(double scale) {
+            int width = layoutWidth;
+            int height = layoutHeight;
+            BufferedImage layer = new BufferedImage(
+                Math.max(1, (int) Math.ceil(width * scale)), Math.max(1, (int) Math.ceil(height * scale)),
+                BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g2 = layer.createGraphics();
+            try {
+                g2.scale(scale, scale);
+                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g2.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+                g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
                 
-                if (i == 0) {
-                    linePath.moveTo(x, y);
-                } else {
-                    linePath.lineTo(x, y);
+                // Draw subtle grid
+                g2.setColor(new Color(240, 245, 250));
+                for (int i = 0; i <= GRID_LINES; i++) {
+                    int y = height - PADDING - (int)((height - 2 * PADDING) * i / (double)GRID_LINES);
+                    g2.drawLine(PADDING, y, width - PADDING, y);
                 }
-            }
-            g2.draw(linePath);
-            
-            // Draw points and labels
-            g2.setStroke(new BasicStroke(1));
-            for (int i = 0; i < chartData.size(); i++) {
-                DataPoint dp = chartData.get(i);
-                double x = PADDING + i * xStep;
-                double y = height - PADDING - (dp.value / maxValue) * chartHeight;
                 
-                boolean isHovered = (i == hoveredPointIndex);
+                // Draw axes with softer color
+                g2.setColor(new Color(200, 210, 220));
+                g2.setStroke(new BasicStroke(2));
+                g2.drawLine(PADDING, height - PADDING, width - PADDING, height - PADDING); // X axis
+                g2.drawLine(PADDING, PADDING, PADDING, height - PADDING); // Y axis
                 
-                // Point circle with subtle shadow (larger if hovered)
-                int pointSize = isHovered ? 14 : 10;
-                g2.setColor(new Color(0, 0, 0, 30));
-                g2.fillOval((int)x - pointSize/2, (int)y - pointSize/2 + 1, pointSize + 1, pointSize + 1);
+                // Y-axis labels
+                g2.setColor(new Color(120, 130, 140));
+                g2.setFont(axisFont);
+                for (int i = 0; i <= GRID_LINES; i++) {
+                    int y = height - PADDING - (int)((height - 2 * PADDING) * i / (double)GRID_LINES);
+                    String label = String.format("%.0f", maxValue * i / GRID_LINES);
+                    g2.drawString(label, 5, y + 5);
+                }
                 
-                g2.setColor(new Color(25, 118, 140));
-                g2.fillOval((int)x - pointSize/2, (int)y - pointSize/2, pointSize, pointSize);
+                // Build gradient fill area path
+                Path2D.Double fillPath = new Path2D.Double();
+                fillPath.moveTo(PADDING, height - PADDING);
+                for (int i = 0; i < pointX.length; i++) {
+                    fillPath.lineTo(pointX[i], pointY[i]);
+                }
+                fillPath.lineTo(pointX[pointX.length - 1], height - PADDING);
+                fillPath.closePath();
                 
-                g2.setColor(Color.WHITE);
-                int innerSize = isHovered ? 8 : 6;
-                g2.fillOval((int)x - innerSize/2, (int)y - innerSize/2, innerSize, innerSize);
+                // Fill gradient (cyan to transparent)
+                GradientPaint gradientFill = new GradientPaint(
+                    0, PADDING, new Color(109, 193, 210, 80),
+                    0, height - PADDING, new Color(109, 193, 210, 5)
+                );
+                g2.setPaint(gradientFill);
+                g2.fill(fillPath);
                 
-                // X-axis label
-                g2.setFont(new Font("Segoe UI", Font.PLAIN, 10));
-                g2.setColor(new Color(100, 110, 120));
-                FontMetrics fm = g2.getFontMetrics();
-                int labelWidth = fm.stringWidth(dp.label);
-                g2.drawString(dp.label, (int)x - labelWidth / 2, height - PADDING + 20);
+                // Draw line chart with thicker stroke
+                g2.setColor(new Color(25, 118, 140));
+                g2.setStroke(new BasicStroke(3, BasicStroke.CAP_ROUND, BasicStroke.JOIN_ROUND));
+                Path2D.Double linePath = new Path2D.Double();
+                for (int i = 0; i < pointX.length; i++) {
+                    if (i == 0) {
+                        linePath.moveTo(pointX[i], pointY[i]);
+                    } else {
+                        linePath.lineTo(pointX[i], pointY[i]);
+                    }
+                }
+                g2.draw(linePath);
                 
-                // Annotate peak with modern badge
-                if (i == peakIndex && hoveredPointIndex == -1) {
-                    DecimalFormat df = new DecimalFormat("#,##0.00");
-                    String valueLabel = "₹" + df.format(dp.value);
-                    
-                    g2.setFont(new Font("Segoe UI", Font.BOLD, 12));
-                    FontMetrics vfm = g2.getFontMetrics();
-                    int vWidth = vfm.stringWidth(valueLabel);
-                    int vHeight = vfm.getHeight();
-                    
-                    int badgeX = (int)x - vWidth / 2 - 8;
-                    int badgeY = (int)y - vHeight - 18;
-                    int badgeWidth = vWidth + 16;
-                    int badgeHeight = vHeight + 8;
-                    
-                    // Badge shadow
-                    g2.setColor(new Color(0, 0, 0, 20));
-                    g2.fillRoundRect(badgeX + 2, badgeY + 2, badgeWidth, badgeHeight, 8, 8);
-                    
-                    // Badge background
-                    g2.setColor(new Color(220, 20, 60));
-                    g2.fillRoundRect(badgeX, badgeY, badgeWidth, badgeHeight, 8, 8);
+                // Draw points and labels
+                g2.setStroke(new BasicStroke(1));
+                g2.setFont(labelFont);
+                FontMetrics fm = g2.getFontMetrics();
+                for (int i = 0; i < pointX.length; i++) {
+                    paintPoint(g2, i, false);
                     
-                    // Badge text
-                    g2.setColor(Color.WHITE);
-                    g2.drawString(valueLabel, badgeX + 8, badgeY + vHeight - 2);
+                    // X-axis label
+                    String label = chartData.get(i).label;
+                    g2.setColor(new Color(100, 110, 120));
+                    g2.drawString(label, (int) pointX[i] - fm.stringWidth(label) / 2, height - PADDING + 20);
                 }
+            } finally {
+                g2.dispose();
             }
+            return layer;
+        }
+        
+        // Point circle with subtle shadow (larger if hovered)
+        private void paintPoint(Graphics2D g2, int index, boolean hovered) {
+            int x = (int) pointX[index];
+            int y = (int) pointY[index];
+            int pointSize = hovered ? 14 : 10;
+            g2.setColor(new Color(0, 0, 0, 30));
+            g2.fillOval(x - pointSize/2, y - pointSize/2 + 1, pointSize + 1, pointSize + 1);
             
-            // Draw hover tooltip
-            if (hoveredPointIndex >= 0 && hoveredPointIndex < chartData.size()) {
-                DataPoint dp = chartData.get(hoveredPointIndex);
-                double px = PADDING + hoveredPointIndex * xStep;
-                double py = height - PADDING - (dp.value / maxValue) * chartHeight;
-                
-                DecimalFormat df = new DecimalFormat("#,##0.00");
-                String valueText = "₹" + df.format(dp.value);
-                String labelText = dp.label;
-                
-                g2.setFont(new Font("Segoe UI", Font.BOLD, 11));
-                FontMetrics vfm = g2.getFontMetrics();
-                int vWidth = vfm.stringWidth(valueText);
-                
-                g2.setFont(new Font("Segoe UI", Font.PLAIN, 10));
-                FontMetrics lfm = g2.getFontMetrics();
-                int lWidth = lfm.stringWidth(labelText);
-                
-                int tooltipWidth = Math.max(vWidth, lWidth) + 20;
-                int tooltipHeight = 48;
-                int tooltipX = (int)px - tooltipWidth / 2;
-                int tooltipY = (int)py - tooltipHeight - 15;
-                
-                // Keep tooltip within bounds
-                if (tooltipX < 10) tooltipX = 10;
-                if (tooltipX + tooltipWidth > width - 10) tooltipX = width - tooltipWidth - 10;
-                if (tooltipY < 10) tooltipY = (int)py + 20;
-                
-                // Tooltip shadow
-                g2.setColor(new Color(0, 0, 0, 40));
-                g2.fillRoundRect(tooltipX + 2, tooltipY + 2, tooltipWidth, tooltipHeight, 10, 10);
-                
-                // Tooltip background with gradient
-                GradientPaint tooltipGrad = new GradientPaint(
-                    tooltipX, tooltipY, new Color(25, 118, 140),
-                    tooltipX, tooltipY + tooltipHeight, new Color(15, 76, 92)
-                );
-                g2.setPaint(tooltipGrad);
-                g2.fillRoundRect(tooltipX, tooltipY, tooltipWidth, tooltipHeight, 10, 10);
-                
-                // Border
-                g2.setColor(new Color(109, 193, 210));
-                g2.setStroke(new BasicStroke(1.5f));
-                g2.drawRoundRect(tooltipX, tooltipY, tooltipWidth, tooltipHeight, 10, 10);
-                
-                // Text
-                g2.setFont(new Font("Segoe UI", Font.BOLD, 11));
-                g2.setColor(Color.WHITE);
-                g2.drawString(valueText, tooltipX + (tooltipWidth - vWidth) / 2, tooltipY + 20);
-                
-                g2.setFont(new Font("Segoe UI", Font.PLAIN, 10));
-                g2.setColor(new Color(200, 230, 240));
-                g2.drawString(labelText, tooltipX + (tooltipWidth - lWidth) / 2, tooltipY + 36);
+            g2.setColor(new Color(25, 118, 140));
+            g2.fillOval(x - pointSize/2, y - pointSize/2, pointSize, pointSize);
+            
+            g2.setColor(Color.WHITE);
+            int innerSize = hovered ? 8 : 6;
+            g2.fillOval(x - innerSize/2, y - innerSize/2, innerSize, innerSize);
+        }
+        
+        // Annotate peak with modern badge
+        private void paintPeakBadge(Graphics2D g2) {
+            Rectangle badge = badgeRect();
+            String valueLabel = "₹" + valueFormat.format(chartData.get(peakIndex).value);
+            g2.setFont(badgeFont);
+            FontMetrics vfm = g2.getFontMetrics();
+            
+            // Badge shadow
+            g2.setColor(new Color(0, 0, 0, 20));
+            g2.fillRoundRect(badge.x + 2, badge.y + 2, badge.width, badge.height, 8, 8);
+            
+            // Badge background
+            g2.setColor(new Color(220, 20, 60));
+            g2.fillRoundRect(badge.x, badge.y, badge.width, badge.height, 8, 8);
+            
+            // Badge text
+            g2.setColor(Color.WHITE);
+            g2.drawString(valueLabel, badge.x + 8, badge.y + vfm.getHeight() - 2);
+        }
+        
+        // Draw hover tooltip
+        private void paintHover(Graphics2D g2, int index) {
+            paintPoint(g2, index, true);
+            
+            DataPoint dp = chartData.get(index);
+            String valueText = "₹" + valueFormat.format(dp.value);
+            String labelText = dp.label;
+            Rectangle tooltip = tooltipRect(index);
+            int vWidth = getFontMetrics(tooltipValueFont).stringWidth(valueText);
+            int lWidth = getFontMetrics(labelFont).stringWidth(labelText);
+            
+            // Tooltip shadow
+            g2.setColor(new Color(0, 0, 0, 40));
+            g2.fillRoundRect(tooltip.x + 2, tooltip.y + 2, tooltip.width, tooltip.height, 10, 10);
+            
+            // Tooltip background with gradient
+            GradientPaint tooltipGrad = new GradientPaint(
+                tooltip.x, tooltip.y, new Color(25, 118, 140),
+                tooltip.x, tooltip.y + tooltip.height, new Color(15, 76, 92)
+            );
+            g2.setPaint(tooltipGrad);
+            g2.fillRoundRect(tooltip.x, tooltip.y, tooltip.width, tooltip.height, 10, 10);
+            
+            // Border
+            g2.setColor(new Color(109, 193, 210));
+            g2.setStroke(new BasicStroke(1.5f));
+            g2.drawRoundRect(tooltip.x, tooltip.y, tooltip.width, tooltip.height, 10, 10);
+            
+            // Text
+            g2.setFont(tooltipValueFont);
+            g2.setColor(Color.WHITE);
+            g2.drawString(valueText, tooltip.x + (tooltip.width - vWidth) / 2, tooltip.y + 20);
+            
+            g2.setFont(labelFont);
+            g2.setColor(new Color(200, 230, 240));
+            g2.drawString(labelText, tooltip.x + (tooltip.width - lWidth) / 2, tooltip.y + 36);
+        }
+        
+        private Rectangle badgeRect() {
+            FontMetrics vfm = getFontMetrics(badgeFont);
+            String valueLabel = "₹" + valueFormat.format(chartData.get(peakIndex).value);
+            int vWidth = vfm.stringWidth(valueLabel);
+            int vHeight = vfm.getHeight();
+            int x = (int) pointX[peakIndex];
+            int y = (int) pointY[peakIndex];
+            return new Rectangle(x - vWidth / 2 - 8, y - vHeight - 18, vWidth + 16, vHeight + 8);
+        }
+        
+        private Rectangle tooltipRect(int index) {
+            DataPoint dp = chartData.get(index);
+            int vWidth = getFontMetrics(tooltipValueFont).stringWidth("₹" + valueFormat.format(dp.value));
+            int lWidth = getFontMetrics(labelFont).stringWidth(dp.label);
+            int tooltipWidth = Math.max(vWidth, lWidth) + 20;
+            int tooltipX = (int) pointX[index] - tooltipWidth / 2;
+            int tooltipY = (int) pointY[index] - TOOLTIP_HEIGHT - 15;
+            
+            // Keep tooltip within bounds
+            if (tooltipX < 10) tooltipX = 10;
+            if (tooltipX + tooltipWidth > layoutWidth - 10) tooltipX = layoutWidth - tooltipWidth - 10;
+            if (tooltipY < 10) tooltipY = (int) pointY[index] + 20;
+            return new Rectangle(tooltipX, tooltipY, tooltipWidth, TOOLTIP_HEIGHT);
+        }
+        
+        // Painted area of the badge, with its shadow
+        private Rectangle badgeBounds() {
+            if (chartData.isEmpty()) {
+                return null;
             }
+            Rectangle bounds = badgeRect();
+            bounds.grow(3, 3);
+            return bounds;
+        }
+        
+        // Painted area of the enlarged point and the tooltip, with shadows and border
+        private Rectangle hoverBounds(int index) {
+            int x = (int) pointX[index];
+            int y = (int) pointY[index];
+            Rectangle bounds = new Rectangle(x - 9, y - 9, 19, 20);
+            Rectangle tooltip = tooltipRect(index);
+            tooltip.grow(3, 3);
+            tooltip.width += 2;
+            tooltip.height += 2;
+            bounds.add(tooltip);
+            return bounds;
+        }
+    }
+    
+    // Result of one background load
+    private static class LoadResult {
+        final Period period;
+        final SalesBreakdown breakdown;
+        final Double previousTotal;
+        
+        LoadResult(Period period, SalesBreakdown breakdown, Double previousTotal) {
+            this.period = period;
+            this.breakdown = breakdown;
+            this.previousTotal = previousTotal;
         }
     }
     
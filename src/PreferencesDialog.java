@@ -17,6 +17,7 @@ import com.github.sarxos.webcam.Webcam;
 public class PreferencesDialog extends JDialog {
     private JComboBox<String> webcamSelector;
     private JTextField imagePathField;
+    private JComboBox<String> photoQualitySelector;
     private JCheckBox disableCameraCheckBox;
     private JRadioButton orientationAutoRadio;
     private JRadioButton orientationPortraitRadio;
@@ -42,6 +43,11 @@ public class PreferencesDialog extends JDialog {
     private static final String SECTION_EXPORT = "Export Settings";
     private static final String SECTION_CATALOG = "Key Catalog";
 
+    private static final String[] PHOTO_QUALITY_LABELS = {
+        "As captured", "High (90%)", "Medium (80%)", "Low (70%)"
+    };
+    private static final int[] PHOTO_QUALITY_VALUES = {0, 90, 80, 70};
+
     public PreferencesDialog(JFrame parent) {
         super(parent, "Preferences", true);
         initComponents();
@@ -354,6 +360,27 @@ public class PreferencesDialog extends JDialog {
         pathPanel.add(browseBtn, BorderLayout.EAST);
         
         imageContainer.add(pathPanel);
+        imageContainer.add(Box.createVerticalStrut(12));
+
+        JLabel qualityLabel = new JLabel("Saved photo quality");
+        qualityLabel.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        qualityLabel.setForeground(new Color(80, 80, 80));
+        qualityLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        imageContainer.add(qualityLabel);
+        imageContainer.add(Box.createVerticalStrut(6));
+
+        photoQualitySelector = new JComboBox<>(PHOTO_QUALITY_LABELS);
+        photoQualitySelector.setFont(new Font("Segoe UI", Font.PLAIN, 13));
+        photoQualitySelector.setAlignmentX(Component.LEFT_ALIGNMENT);
+        photoQualitySelector.setMaximumSize(new Dimension(Integer.MAX_VALUE, 35));
+        photoQualitySelector.setToolTipText("Smaller files are recompressed in the background after a record is saved");
+        int currentQuality = AppConfig.getPhotoQuality();
+        for (int i = 0; i < PHOTO_QUALITY_VALUES.length; i++) {
+            if (PHOTO_QUALITY_VALUES[i] == currentQuality) {
+                photoQualitySelector.setSelectedIndex(i);
+            }
+        }
+        imageContainer.add(photoQualitySelector);
         panel.add(imageContainer);
         panel.add(Box.createVerticalGlue());
         
@@ -731,10 +758,19 @@ public class PreferencesDialog extends JDialog {
     }
 
     private void createBackupNow() {
+        File backupFile;
         try {
-            File backupFile = resolveDefaultBackupFileFromField();
-            BackupManager.BackupAppendResult result = BackupManager.appendIncrementalBackup(backupFile);
+            backupFile = resolveDefaultBackupFileFromField();
+        } catch (Exception ex) {
+            ModernDialog.showError(this,
+                "Backup failed: " + ex.getMessage(),
+                "Backup Error");
+            return;
+        }
 
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        QueryExecutor.submit(task -> BackupManager.appendIncrementalBackup(backupFile), result -> {
+            setCursor(Cursor.getDefaultCursor());
             if (result.getRecordsAdded() == 0) {
                 ModernDialog.showInfo(this,
                     "Backup file is valid, but no new records were found to append.\n\n" +
@@ -749,11 +785,12 @@ public class PreferencesDialog extends JDialog {
                     "Total snapshots in file: " + result.getSnapshotCount(),
                     "Backup Complete");
             }
-        } catch (Exception ex) {
+        }, ex -> {
+            setCursor(Cursor.getDefaultCursor());
             ModernDialog.showError(this,
                 "Backup failed: " + ex.getMessage(),
                 "Backup Error");
-        }
+        });
     }
 
     private void restoreFromBackup() {
@@ -799,8 +836,9 @@ public class PreferencesDialog extends JDialog {
             return;
         }
 
-        try {
-            BackupManager.RestoreResult result = BackupManager.restoreMissingData(selectedFile);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        QueryExecutor.submit(task -> BackupManager.restoreMissingData(selectedFile), result -> {
+            setCursor(Cursor.getDefaultCursor());
             settingsChanged = true;
             ModernDialog.showInfo(this,
                 "Restore completed successfully.\n\n" +
@@ -809,11 +847,12 @@ public class PreferencesDialog extends JDialog {
                 "Records skipped (already present/invalid): " + result.getRecordsSkipped() + "\n" +
                 "Images restored: " + result.getImagesRestored(),
                 "Restore Complete");
-        } catch (Exception ex) {
+        }, ex -> {
+            setCursor(Cursor.getDefaultCursor());
             ModernDialog.showError(this,
                 "Restore failed: " + ex.getMessage(),
                 "Restore Error");
-        }
+        });
     }
     
     private JPanel createExportPanelModern() {
@@ -1246,6 +1285,12 @@ public class PreferencesDialog extends JDialog {
             settingsChanged = true;
         }
 
+        int photoQuality = PHOTO_QUALITY_VALUES[Math.max(0, photoQualitySelector.getSelectedIndex())];
+        if (photoQuality != AppConfig.getPhotoQuality()) {
+            AppConfig.setPhotoQuality(photoQuality);
+            settingsChanged = true;
+        }
+
         String currentBackupDirectory = AppConfig.getBackupDirectory();
         String enteredBackupDirectory = backupLocationField == null
             ? currentBackupDirectory
@@ -0,0 +1,214 @@
+package src;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+
+/**
+ * Shared background executor for database and file work started from the UI.
+ * The work runs on a small pool of daemon threads; success, failure and
+ * progress callbacks are always delivered on the event dispatch thread.
+ * Work nobody is waiting for (cache loads, photo processing, prefetching)
+ * goes through {@link #submitBackground} to a separate low-priority thread,
+ * so it never holds up a query the user started.
+ *
+ * Cancelling a task never interrupts its thread: H2 closes the database file
+ * when a thread is interrupted inside a query. The work is expected to check
+ * {@link Task#isCancelled()} between rows instead, and callbacks of a
+ * cancelled task are not run. Queries run through
+ * {@link Task#executeQuery(PreparedStatement)} are also stopped inside the
+ * database when the task is cancelled.
+ */
+public final class QueryExecutor {
+    private static final int THREADS = 2;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(THREADS, r -> {
+        Thread thread = new Thread(r, "KeyBase-Query-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ExecutorService BACKGROUND_EXECUTOR = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "KeyBase-Background");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private QueryExecutor() {
+    }
+
+    /**
+     * Background part of a task. The task handle is passed in so the work
+     * can report progress and stop early once cancelled.
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T run(Task<?> task) throws Exception;
+    }
+
+    public static <T> Task<T> submit(Work<T> work, Consumer<? super T> onSuccess, Consumer<Exception> onFailure) {
+        return submit(work, onSuccess, onFailure, null);
+    }
+
+    /**
+     * Run work in the background. onProgress receives values from 0 to 100
+     * passed to {@link Task#setProgressPercent(int)}; it may be null.
+     */
+    public static <T> Task<T> submit(Work<T> work, Consumer<? super T> onSuccess, Consumer<Exception> onFailure,
+                                     IntConsumer onProgress) {
+        return execute(EXECUTOR, work, onSuccess, onFailure, onProgress);
+    }
+
+    /**
+     * Run work on the low-priority background thread, one task at a time in
+     * the order submitted. Callbacks behave as for {@link #submit}.
+     */
+    public static <T> Task<T> submitBackground(Work<T> work, Consumer<? super T> onSuccess,
+                                               Consumer<Exception> onFailure) {
+        return execute(BACKGROUND_EXECUTOR, work, onSuccess, onFailure, null);
+    }
+
+    private static <T> Task<T> execute(ExecutorService executor, Work<T> work, Consumer<? super T> onSuccess,
+                                       Consumer<Exception> onFailure, IntConsumer onProgress) {
+        Task<T> task = new Task<>(work, onSuccess, onFailure);
+        if (onProgress != null) {
+            task.addPropertyChangeListener(evt -> {
+                if ("progress".equals(evt.getPropertyName())) {
+                    onProgress.accept((Integer) evt.getNewValue());
+                }
+            });
+        }
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * Cancel a task if there is one; convenient for "replace the previous
+     * query" fields that may still be null.
+     */
+    public static void cancel(Task<?> task) {
+        if (task != null) {
+            task.cancel();
+        }
+    }
+
+    public static final class Task<T> extends SwingWorker<T, Void> {
+        private final Work<T> work;
+        private final Consumer<? super T> onSuccess;
+        private final Consumer<Exception> onFailure;
+        private volatile Statement runningStatement;
+
+        private Task(Work<T> work, Consumer<? super T> onSuccess, Consumer<Exception> onFailure) {
+            this.work = work;
+            this.onSuccess = onSuccess;
+            this.onFailure = onFailure;
+        }
+
+        /**
+         * Stop delivering results for this task. The background work keeps
+         * running until it next checks {@link #isCancelled()}.
+         */
+        public void cancel() {
+            cancel(false);
+            cancelStatement(runningStatement);
+        }
+
+        /**
+         * Execute a query that {@link #cancel()} can stop while it runs; H2
+         * then fails it with "statement was canceled".
+         */
+        public ResultSet executeQuery(PreparedStatement statement) throws SQLException {
+            runningStatement = statement;
+            try {
+                if (isCancelled()) {
+                    throw new SQLException("Query cancelled", "57014");
+                }
+                return statement.executeQuery();
+            } finally {
+                runningStatement = null;
+            }
+        }
+
+        private static void cancelStatement(Statement statement) {
+            if (statement == null) {
+                return;
+            }
+            try {
+                statement.cancel();
+            } catch (SQLException e) {
+                // Already finished or closed
+            }
+        }
+
+        /**
+         * Run an update on the EDT while the work carries on, e.g. to show the
+         * first rows of a long result. Updates run in the order they were
+         * posted and before the success callback; they are skipped once the
+         * task is cancelled.
+         */
+        public void runOnEdt(Runnable update) {
+            SwingUtilities.invokeLater(() -> {
+                if (!isCancelled()) {
+                    update.run();
+                }
+            });
+        }
+
+        public void setProgressPercent(int percent) {
+            setProgress(Math.max(0, Math.min(100, percent)));
+        }
+
+        @Override
+        protected T doInBackground() throws Exception {
+            return work.run(this);
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                return;
+            }
+            T result;
+            try {
+                result = get();
+            } catch (CancellationException e) {
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    fail((Exception) cause);
+                } else {
+                    System.err.println("Background task failed: " + cause);
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                }
+                return;
+            }
+            if (onSuccess != null) {
+                onSuccess.accept(result);
+            }
+        }
+
+        private void fail(Exception e) {
+            if (onFailure != null) {
+                onFailure.accept(e);
+            } else {
+                System.err.println("Background task failed: " + e.getMessage());
+            }
+        }
+    }
+}
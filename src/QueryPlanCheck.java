@@ -0,0 +1,172 @@
+package src;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Query plan regression check. Runs EXPLAIN on the date range queries used by
+ * the metrics, statistics, export and delete screens and exits with status 1
+ * if any of them falls back to a full scan, e.g. after an index was dropped
+ * or a query was rewritten so it no longer matches one. The Records table
+ * page queries must also be read in index order rather than sorted. Also runs
+ * one full-text search, since a broken full-text index only shows when queried.
+ *
+ * Run with "ant check-query-plans" against a migrated database.
+ */
+public class QueryPlanCheck {
+    // H2 prints the chosen index as /* PUBLIC.IDX_NAME: conditions */; an index without
+    // conditions (including PUBLIC.DUPLICATOR.tableScan) means every row is read
+    private static final Pattern FULL_SCAN = Pattern.compile("/\\* [A-Z_]+\\.[A-Za-z0-9_.]+ \\*/");
+    // Appended by H2 when ORDER BY is satisfied by the index, so LIMIT stops early
+    private static final String INDEX_SORTED = "/* index sorted */";
+    private static final String NEWEST_NAME_SQL =
+        "SELECT name FROM duplicator ORDER BY duplicator_id DESC FETCH FIRST ROW ONLY";
+    private static final String FULL_TEXT_SEARCH_SQL =
+        "SELECT COUNT(*) FROM FT_SEARCH_DATA(?, 0, 0) WHERE \"TABLE\" = 'DUPLICATOR'";
+
+    public static void main(String[] args) {
+        List<PlannedQuery> queries = new ArrayList<>();
+        queries.add(new PlannedQuery("Metrics: period breakdown", SalesBreakdown.PERIOD_ROWS_SQL));
+        queries.add(new PlannedQuery("Export: row count", MainForm.EXPORT_COUNT_SQL));
+        queries.add(new PlannedQuery("Export: rows", MainForm.EXPORT_SQL));
+        queries.add(new PlannedQuery("Print today's records", MainForm.TODAYS_RECORDS_SQL));
+        queries.add(new PlannedQuery("Delete: affected count", DuplicatorRepository.COUNT_BY_DATE_SQL));
+        queries.add(new PlannedQuery("Delete: records", DeleteRecordsDialog.DELETE_BY_DATE_SQL));
+        queries.add(new PlannedQuery("Statistics: date range", KeyStatisticsWindow.KEY_COUNTS_IN_RANGE_SQL));
+        // All-time statistics cover the whole rollup table, so a scan is the expected plan
+        queries.add(PlannedQuery.fullTable("Statistics: all time", KeyStatisticsWindow.KEY_COUNTS_SQL));
+        // Bound near the top of the id range, as for the pages under the first screen
+        queries.add(PlannedQuery.sorted("Records: page", DuplicatorRepository.PAGE_SQL,
+            Integer.MAX_VALUE, KeyEntriesTableModel.PAGE_SIZE));
+        queries.add(PlannedQuery.sorted("Records: jump to page", DuplicatorRepository.KEY_AFTER_SQL,
+            Integer.MAX_VALUE, KeyEntriesTableModel.PAGE_SIZE * 10));
+
+        int failures = 0;
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            System.out.println("Schema version " + SchemaMigrator.getCurrentVersion(conn));
+            for (PlannedQuery query : queries) {
+                String plan = explain(conn, query.sql, query.params);
+                boolean scans = FULL_SCAN.matcher(plan).find();
+                if (scans && !query.scanAllowed) {
+                    failures++;
+                    System.out.println("✗ " + query.name + " reads the whole table:");
+                    System.out.println(plan);
+                } else if (query.params != null && !plan.contains(INDEX_SORTED)) {
+                    failures++;
+                    System.out.println("✗ " + query.name + " sorts the rows instead of reading them in index order:");
+                    System.out.println(plan);
+                } else {
+                    System.out.println("✓ " + query.name + (scans ? " (full table by design)" : ""));
+                }
+            }
+            failures += checkFullTextSearch(conn);
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+            e.printStackTrace();
+            failures++;
+        } finally {
+            DatabaseConnection.closeConnection();
+        }
+
+        if (failures > 0) {
+            System.out.println("\n" + failures + " query plan(s) failed the check");
+            System.exit(1);
+        }
+        System.out.println("\nAll query plans use an index");
+    }
+
+    /**
+     * EXPLAIN output for the query with the given parameters, or when there are
+     * none its date parameters bound to the current month, alternating range
+     * start and end.
+     */
+    private static String explain(Connection conn, String sql, Object[] params) throws SQLException {
+        LocalDate today = LocalDate.now();
+        Date start = Date.valueOf(today.withDayOfMonth(1));
+        Date end = Date.valueOf(today);
+        try (PreparedStatement ps = conn.prepareStatement("EXPLAIN " + sql)) {
+            int count = ps.getParameterMetaData().getParameterCount();
+            for (int i = 1; i <= count; i++) {
+                if (params != null) {
+                    ps.setObject(i, params[i - 1]);
+                } else {
+                    ps.setDate(i, i % 2 == 1 ? start : end);
+                }
+            }
+            StringBuilder plan = new StringBuilder();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1));
+                }
+            }
+            return plan.toString();
+        }
+    }
+
+    /**
+     * Search the full-text index for the first word of the newest record's
+     * name, which it must find. Returns the number of failures (0 or 1).
+     */
+    private static int checkFullTextSearch(Connection conn) throws SQLException {
+        String word = null;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(NEWEST_NAME_SQL)) {
+            if (rs.next() && rs.getString(1) != null) {
+                word = rs.getString(1).trim().split("\\s+")[0];
+            }
+        }
+        if (word == null || word.isEmpty()) {
+            System.out.println("- Full-text search: no record to search for");
+            return 0;
+        }
+        try (PreparedStatement ps = conn.prepareStatement(FULL_TEXT_SEARCH_SQL)) {
+            ps.setString(1, word);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (rs.next() && rs.getInt(1) > 0) {
+                    System.out.println("✓ Full-text search");
+                    return 0;
+                }
+            }
+            System.out.println("✗ Full-text search finds no record for \"" + word + "\"");
+        } catch (SQLException e) {
+            // e.g. the index lost track of the table after a column was added without FT_REINDEX
+            System.out.println("✗ Full-text search fails: " + e.getMessage());
+        }
+        return 1;
+    }
+
+    private static final class PlannedQuery {
+        private final String name;
+        private final String sql;
+        private final boolean scanAllowed;
+        // Non-null for keyset page queries, which must also be index sorted
+        private final Object[] params;
+
+        private PlannedQuery(String name, String sql) {
+            this(name, sql, false, null);
+        }
+
+        private PlannedQuery(String name, String sql, boolean scanAllowed, Object[] params) {
+            this.name = name;
+            this.sql = sql;
+            this.scanAllowed = scanAllowed;
+            this.params = params;
+        }
+
+        private static PlannedQuery fullTable(String name, String sql) {
+            return new PlannedQuery(name, sql, true, null);
+        }
+
+        private static PlannedQuery sorted(String name, String sql, Object... params) {
+            return new PlannedQuery(name, sql, false, params);
+        }
+    }
+}
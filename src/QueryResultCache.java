@@ -0,0 +1,273 @@
+package src;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Results of recent read-only queries (metrics, statistics, All Fields
+ * searches), so opening the same view again with the same filters does not
+ * hit the database. Entries are keyed by the query text with its whitespace
+ * collapsed plus the bound parameters, and the least recently used entry is
+ * dropped once {@link #MAX_ENTRIES} are held.
+ *
+ * Each entry records the date_added range its query reads (or none, meaning
+ * the whole table). The write methods of {@link DuplicatorRepository}, the
+ * date range delete and the backup restore report which dates they touched,
+ * and only entries whose range includes one of them are dropped. Writes made
+ * by another PC sharing the database are not reported, so entries also
+ * expire after {@link #MAX_AGE_MILLIS}.
+ *
+ * Cached values are shared between callers and must not be modified. All
+ * access is synchronized on the class.
+ */
+public final class QueryResultCache {
+    static final int MAX_ENTRIES = 64;
+    static final long MAX_AGE_MILLIS = 2 * 60 * 1000L;
+
+    private static final Map<Key, Entry> ENTRIES = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    // Bumped by every invalidation; a load that started before one is not stored
+    private static long generation;
+
+    private QueryResultCache() {
+    }
+
+    /**
+     * Rows of a query whose first two parameters are the inclusive
+     * date_added range it reads; each row holds the column values as
+     * returned by {@link ResultSet#getObject(int)}.
+     */
+    public static List<Object[]> queryRange(Connection conn, String sql, LocalDate from, LocalDate to) throws SQLException {
+        List<Object> params = rangeParams(from, to);
+        return getOrLoad(sql, params, from, to, () -> readRows(conn, sql, params));
+    }
+
+    /**
+     * Rows of a query without parameters that reads the whole table.
+     */
+    public static List<Object[]> queryAll(Connection conn, String sql) throws SQLException {
+        List<Object> params = Collections.emptyList();
+        return getOrLoad(sql, params, null, null, () -> readRows(conn, sql, params));
+    }
+
+    /**
+     * Rows {@link #queryRange} would return from the cache, or null when it
+     * would have to run the query.
+     */
+    public static List<Object[]> getRange(String sql, LocalDate from, LocalDate to) {
+        return get(sql, rangeParams(from, to));
+    }
+
+    /**
+     * Rows {@link #queryAll} would return from the cache, or null.
+     */
+    public static List<Object[]> getAll(String sql) {
+        return get(sql, Collections.emptyList());
+    }
+
+    /**
+     * Cached value for the query, or the loader's result, which is cached
+     * unless a write was reported while it ran. from/to give the date_added
+     * range the query reads; pass null for both when it reads every row.
+     */
+    public static <T> T getOrLoad(String sql, List<?> params, LocalDate from, LocalDate to,
+                                  Loader<T> loader) throws SQLException {
+        T cached = get(sql, params);
+        if (cached != null) {
+            return cached;
+        }
+        long stamp = stamp();
+        T value = loader.load();
+        put(sql, params, from, to, value, stamp);
+        return value;
+    }
+
+    /**
+     * Cached value for the query, or null.
+     */
+    @SuppressWarnings("unchecked")
+    public static synchronized <T> T get(String sql, List<?> params) {
+        Key key = new Key(sql, params);
+        Entry entry = ENTRIES.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.loadedAt > MAX_AGE_MILLIS) {
+            ENTRIES.remove(key);
+            return null;
+        }
+        return (T) entry.value;
+    }
+
+    /**
+     * Token to take before running a query whose result is later passed to
+     * {@link #put}.
+     */
+    public static synchronized long stamp() {
+        return generation;
+    }
+
+    /**
+     * Store a query result read after {@code stamp} was taken. Ignored when a
+     * write has been reported since, because the result may predate it.
+     */
+    public static synchronized void put(String sql, List<?> params, LocalDate from, LocalDate to,
+                                        Object value, long stamp) {
+        if (value == null || stamp != generation) {
+            return;
+        }
+        ENTRIES.put(new Key(sql, params), new Entry(value, toDay(from, Long.MIN_VALUE), toDay(to, Long.MAX_VALUE)));
+    }
+
+    /**
+     * A record dated {@code date} (may be null) was inserted, updated or
+     * cleared.
+     */
+    static void dateChanged(Date date) {
+        datesChanged(date, date);
+    }
+
+    /**
+     * Records dated from..to (inclusive) were inserted or deleted. Nulls stand
+     * for records without a date, which only whole-table results include.
+     */
+    static synchronized void datesChanged(Date from, Date to) {
+        generation++;
+        long fromDay = from != null ? toDay(from) : Long.MAX_VALUE;
+        long toDay = to != null ? toDay(to) : Long.MIN_VALUE;
+        Iterator<Entry> it = ENTRIES.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            boolean wholeTable = entry.fromDay == Long.MIN_VALUE && entry.toDay == Long.MAX_VALUE;
+            if (wholeTable || (entry.fromDay <= toDay && fromDay <= entry.toDay)) {
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * The records were inserted (e.g. a batch import or restore).
+     */
+    static void recordsChanged(Collection<Duplicator> records) {
+        Date first = null;
+        Date last = null;
+        for (Duplicator record : records) {
+            Date date = record.getDateAdded();
+            if (date == null) {
+                continue;
+            }
+            if (first == null || date.before(first)) {
+                first = date;
+            }
+            if (last == null || date.after(last)) {
+                last = date;
+            }
+        }
+        datesChanged(first, last);
+    }
+
+    public static synchronized void clear() {
+        generation++;
+        ENTRIES.clear();
+    }
+
+    private static List<Object> rangeParams(LocalDate from, LocalDate to) {
+        return Arrays.asList(java.sql.Date.valueOf(from), java.sql.Date.valueOf(to));
+    }
+
+    private static List<Object[]> readRows(Connection conn, String sql, List<Object> params) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            try (ResultSet rs = ps.executeQuery()) {
+                int columnCount = rs.getMetaData().getColumnCount();
+                List<Object[]> rows = new ArrayList<>();
+                while (rs.next()) {
+                    Object[] row = new Object[columnCount];
+                    for (int i = 0; i < columnCount; i++) {
+                        row[i] = rs.getObject(i + 1);
+                    }
+                    rows.add(row);
+                }
+                return Collections.unmodifiableList(rows);
+            }
+        }
+    }
+
+    private static long toDay(LocalDate date, long ifNull) {
+        return date != null ? date.toEpochDay() : ifNull;
+    }
+
+    private static long toDay(Date date) {
+        if (date instanceof java.sql.Date) {
+            return ((java.sql.Date) date).toLocalDate().toEpochDay();
+        }
+        return date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+
+    /**
+     * Runs the query on a cache miss.
+     */
+    @FunctionalInterface
+    public interface Loader<T> {
+        T load() throws SQLException;
+    }
+
+    private static final class Key {
+        private final String sql;
+        private final List<Object> params;
+
+        private Key(String sql, List<?> params) {
+            // Same query written with different line breaks or indentation shares an entry
+            this.sql = sql.trim().replaceAll("\\s+", " ");
+            this.params = new ArrayList<>(params);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return sql.equals(other.sql) && params.equals(other.params);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(sql, params);
+        }
+    }
+
+    private static final class Entry {
+        private final Object value;
+        private final long fromDay;
+        private final long toDay;
+        private final long loadedAt = System.currentTimeMillis();
+
+        private Entry(Object value, long fromDay, long toDay) {
+            this.value = value;
+            this.fromDay = fromDay;
+            this.toDay = toDay;
+        }
+    }
+}
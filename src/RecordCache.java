@@ -0,0 +1,796 @@
+package src;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SortedMap;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * In-memory, column-oriented copy of the duplicator table used by the Search
+ * window. Low-cardinality columns (key type, purpose, service type, payment)
+ * are dictionary-encoded with one bitset of rows per value, and dates, times
+ * and amounts are primitive arrays, so applying the search filters is a few
+ * bitset intersections instead of a query. Names also have a trigram index
+ * for the "Similar" name search, and phone and ID numbers a sorted lookup
+ * index for the returning-customer autofill in the main form.
+ *
+ * The cache is loaded in the background on first use and kept current by the
+ * write methods of {@link DuplicatorRepository} and by the date range delete.
+ * Saved searches are kept as materialized views: the matching rows are
+ * worked out once and then updated record by record as writes arrive.
+ * Changes made by another PC sharing the database are picked up by a check
+ * every {@link #CHECK_INTERVAL_MILLIS}: rows whose updated_at moved since the
+ * last check are read again, and a row count that no longer matches (records
+ * deleted elsewhere) reloads the whole table. Rows are kept in duplicator_id
+ * order; all access is synchronized on the class.
+ */
+public final class RecordCache {
+    private static final String LOAD_SQL =
+        "SELECT " + DuplicatorRepository.COLUMNS + " FROM duplicator ORDER BY duplicator_id";
+    private static final String LOAD_SQL_WITHOUT_TIME =
+        "SELECT " + DuplicatorRepository.COLUMNS_WITHOUT_TIME + " FROM duplicator ORDER BY duplicator_id";
+    // COUNT(*) is answered from the table's row count and the changed rows from idx_updated_at (schema version 10)
+    private static final String CHECK_SQL = "SELECT COUNT(*), LOCALTIMESTAMP FROM duplicator";
+    private static final String CHANGED_SQL =
+        "SELECT " + DuplicatorRepository.COLUMNS + " FROM duplicator WHERE updated_at >= ?";
+    private static final String CHANGED_SQL_WITHOUT_TIME =
+        "SELECT " + DuplicatorRepository.COLUMNS_WITHOUT_TIME + " FROM duplicator WHERE updated_at >= ?";
+    static final long CHECK_INTERVAL_MILLIS = 30 * 1000L;
+    // Rows written just before a check may not have been committed yet; they are read again next time
+    private static final long CHECK_OVERLAP_MILLIS = 5 * 1000L;
+
+    private static Columns columns;
+    // Registered views by name; each Columns copy keeps the matching rows
+    private static final Map<String, ViewDefinition> views = new LinkedHashMap<>();
+    private static boolean loading;
+    private static boolean changedWhileLoading;
+    private static Timer checkTimer;
+
+    private RecordCache() {
+    }
+
+    public static synchronized boolean isLoaded() {
+        return columns != null;
+    }
+
+    /**
+     * Read the whole table again in the background. The current contents keep
+     * serving searches until the new copy is ready.
+     */
+    public static void reloadAsync() {
+        synchronized (RecordCache.class) {
+            if (loading) {
+                return;
+            }
+            loading = true;
+            changedWhileLoading = false;
+            if (checkTimer == null) {
+                checkTimer = new Timer("KeyBase-RecordCacheCheck", true);
+                checkTimer.schedule(new TimerTask() {
+                    @Override
+                    public void run() {
+                        checkForChanges();
+                    }
+                }, CHECK_INTERVAL_MILLIS, CHECK_INTERVAL_MILLIS);
+            }
+        }
+        QueryExecutor.submitBackground(task -> load(), loaded -> {
+            boolean stale;
+            synchronized (RecordCache.class) {
+                loading = false;
+                stale = changedWhileLoading;
+                if (!stale) {
+                    columns = loaded;
+                    for (Map.Entry<String, ViewDefinition> view : views.entrySet()) {
+                        loaded.materialize(view.getKey(), view.getValue().filter);
+                    }
+                }
+            }
+            if (stale) {
+                // A write raced with the load; the copy may have missed it
+                reloadAsync();
+            }
+        }, e -> {
+            synchronized (RecordCache.class) {
+                loading = false;
+            }
+            System.err.println("Could not load the record cache: " + e.getMessage());
+        });
+    }
+
+    /**
+     * A single record was inserted, updated or cleared. The record holds the
+     * values as stored ({@link DuplicatorRepository#storedCopy}), so the row
+     * is not read back.
+     */
+    static void recordChanged(Duplicator stored) {
+        boolean applied;
+        synchronized (RecordCache.class) {
+            changedWhileLoading |= loading;
+            if (columns == null) {
+                return;
+            }
+            applied = columns.put(stored);
+        }
+        if (!applied) {
+            recordsChanged();
+        }
+    }
+
+    /**
+     * Many records changed at once (bulk insert, restore); reload the cache
+     * if it is in use.
+     */
+    static void recordsChanged() {
+        synchronized (RecordCache.class) {
+            changedWhileLoading |= loading;
+            if (columns == null) {
+                return;
+            }
+            columns = null;
+        }
+        reloadAsync();
+    }
+
+    /**
+     * Records dated from..to (inclusive) were deleted.
+     */
+    static synchronized void recordsDeleted(Date from, Date to) {
+        changedWhileLoading |= loading;
+        if (columns != null) {
+            columns.removeDateRange(epochDay(from), epochDay(to));
+        }
+    }
+
+    /**
+     * Records matching the filter, newest first, or null if the cache is not
+     * loaded yet and the caller should query the database.
+     */
+    public static synchronized List<Duplicator> find(Filter filter) {
+        return columns == null ? null : columns.find(filter);
+    }
+
+    /**
+     * Up to limit records matching the filter whose name is similar to the
+     * given one (see {@link TrigramIndex}), best match first, or null if the
+     * cache is not loaded yet.
+     */
+    public static synchronized List<Duplicator> findSimilarNames(String name, Filter filter, int limit) {
+        return columns == null ? null : columns.findSimilarNames(name, filter, limit);
+    }
+
+    /**
+     * Earlier visits of the customer with this phone_number or id_no (the
+     * column), newest first, or null if the cache is not loaded yet. Numbers
+     * are compared by their {@link DuplicatorRepository#searchKey(String)}.
+     */
+    public static synchronized List<Duplicator> findVisits(String column, String number, int limit) {
+        return columns == null ? null : columns.findVisits(column, number, limit);
+    }
+
+    /**
+     * The latest record of each customer whose phone_number or id_no (the
+     * column) starts with the prefix, in number order, or null if the cache
+     * is not loaded yet.
+     */
+    public static synchronized List<Duplicator> findByPrefix(String column, String prefix, int limit) {
+        return columns == null ? null : columns.findByPrefix(column, prefix, limit);
+    }
+
+    /**
+     * Keep the records matching the filter as a view under the name. The
+     * matching rows are worked out once and from then on updated as records
+     * are written, so reading the view does no filtering. Registering the
+     * same definition again keeps the existing rows; a changed definition
+     * replaces them.
+     */
+    public static synchronized void registerView(String name, String definition, Filter filter) {
+        ViewDefinition existing = views.get(name);
+        if (existing != null && existing.definition.equals(definition)) {
+            return;
+        }
+        views.put(name, new ViewDefinition(definition, filter));
+        if (columns != null) {
+            columns.materialize(name, filter);
+        }
+    }
+
+    public static synchronized void dropView(String name) {
+        views.remove(name);
+        if (columns != null) {
+            columns.views.remove(name);
+        }
+    }
+
+    /**
+     * Records in the view dated on or after dateFrom (null for any date),
+     * newest first, or null if the cache is not loaded yet or no view has
+     * that name.
+     */
+    public static synchronized List<Duplicator> findInView(String name, Date dateFrom) {
+        return columns == null ? null : columns.findInView(name, dateFrom);
+    }
+
+    private static Columns load() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            boolean hasTimeColumn = DuplicatorRepository.hasTimeColumn(conn);
+            Columns loaded = new Columns();
+            try (Statement stmt = conn.createStatement()) {
+                // Taken before the rows, so anything written during the load is read again by the next check
+                try (ResultSet rs = stmt.executeQuery(CHECK_SQL)) {
+                    rs.next();
+                    loaded.checkedAt = rs.getTimestamp(2);
+                }
+                try (ResultSet rs = stmt.executeQuery(hasTimeColumn ? LOAD_SQL : LOAD_SQL_WITHOUT_TIME)) {
+                    while (rs.next()) {
+                        loaded.put(DuplicatorRepository.mapRow(rs, hasTimeColumn));
+                    }
+                }
+            }
+            return loaded;
+        }
+    }
+
+    /**
+     * Apply the rows written since the last check, including those from other
+     * PCs, and reload if records were deleted elsewhere. Writes made here are
+     * read back as well, which leaves the cache unchanged. Runs on the check
+     * timer.
+     */
+    private static void checkForChanges() {
+        Columns current;
+        synchronized (RecordCache.class) {
+            if (loading || columns == null) {
+                return;
+            }
+            current = columns;
+        }
+        int count;
+        Timestamp checkedAt;
+        List<Duplicator> changed = new ArrayList<>();
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(CHECK_SQL)) {
+                rs.next();
+                count = rs.getInt(1);
+                checkedAt = rs.getTimestamp(2);
+            }
+            boolean hasTimeColumn = DuplicatorRepository.hasTimeColumn(conn);
+            try (PreparedStatement ps = conn.prepareStatement(hasTimeColumn ? CHANGED_SQL : CHANGED_SQL_WITHOUT_TIME)) {
+                ps.setTimestamp(1, new Timestamp(current.checkedAt.getTime() - CHECK_OVERLAP_MILLIS));
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        changed.add(DuplicatorRepository.mapRow(rs, hasTimeColumn));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            System.err.println("Could not check the record cache for changes: " + e.getMessage());
+            return;
+        }
+
+        boolean reload = false;
+        synchronized (RecordCache.class) {
+            if (columns != current) {
+                return;
+            }
+            for (Duplicator record : changed) {
+                if (!current.put(record)) {
+                    reload = true;
+                    break;
+                }
+            }
+            current.checkedAt = checkedAt;
+            reload |= current.live.cardinality() != count;
+        }
+        if (reload) {
+            recordsChanged();
+        }
+    }
+
+    private static int epochDay(Date date) {
+        if (date instanceof java.sql.Date) {
+            return (int) ((java.sql.Date) date).toLocalDate().toEpochDay();
+        }
+        return (int) date.toInstant().atZone(ZoneId.systemDefault()).toLocalDate().toEpochDay();
+    }
+
+    /**
+     * Search window filters; unset parts match every record. Values are the
+     * stored column values (e.g. service_type "IN_SHOP", payment_mode "UPI").
+     */
+    public static final class Filter {
+        private String purpose;
+        private Collection<String> keyTypes;
+        private String serviceType;
+        private String paymentMode;
+        private Date dateFrom;
+        private Date dateTo;
+        private String textColumn;
+        private Predicate<String> textMatcher;
+
+        public Filter purpose(String purpose) {
+            this.purpose = purpose;
+            return this;
+        }
+
+        /** Any of the given key types; an empty collection matches nothing. */
+        public Filter keyTypes(Collection<String> keyTypes) {
+            this.keyTypes = keyTypes;
+            return this;
+        }
+
+        public Filter serviceType(String serviceType) {
+            this.serviceType = serviceType;
+            return this;
+        }
+
+        public Filter paymentMode(String paymentMode) {
+            this.paymentMode = paymentMode;
+            return this;
+        }
+
+        public Filter dateFrom(Date dateFrom) {
+            this.dateFrom = dateFrom;
+            return this;
+        }
+
+        public Filter dateTo(Date dateTo) {
+            this.dateTo = dateTo;
+            return this;
+        }
+
+        /**
+         * Keep records whose column (name, phone_number, vehicle_no, id_no,
+         * key_no or remarks) is not NULL and passes the matcher.
+         */
+        public Filter text(String column, Predicate<String> matcher) {
+            this.textColumn = column;
+            this.textMatcher = matcher;
+            return this;
+        }
+    }
+
+    /**
+     * Column arrays indexed by row position. Deleted rows stay in the arrays
+     * and are only cleared from {@link #live}.
+     */
+    private static final class Columns {
+        private static final int NO_DATE = Integer.MIN_VALUE;
+        private static final int NO_TIME = -1;
+
+        private int size;
+        private int[] ids = new int[1024];
+        private final BitSet live = new BitSet();
+        private String[] names = new String[1024];
+        private String[] phoneNumbers = new String[1024];
+        private String[] idNos = new String[1024];
+        private String[] vehicleNos = new String[1024];
+        private String[] keyNos = new String[1024];
+        private String[] remarks = new String[1024];
+        private String[] imagePaths = new String[1024];
+        private int[] dates = new int[1024];
+        private int[] times = new int[1024];
+        private int[] quantities = new int[1024];
+        private double[] amounts = new double[1024];
+        private final DictionaryColumn keyTypes = new DictionaryColumn();
+        private final DictionaryColumn purposes = new DictionaryColumn();
+        private final DictionaryColumn serviceTypes = new DictionaryColumn();
+        private final DictionaryColumn paymentModes = new DictionaryColumn();
+        private final TrigramIndex nameTrigrams = new TrigramIndex();
+        private final LookupColumn phoneLookup = new LookupColumn();
+        private final LookupColumn idNoLookup = new LookupColumn();
+        private final Map<String, MaterializedView> views = new HashMap<>();
+        // Database time of the load or last change check
+        private Timestamp checkedAt;
+
+        /**
+         * Store a record in place or append it. Returns false for an id below
+         * the newest one that is not cached yet (written by another PC); the
+         * arrays would have to shift, so the caller reloads instead.
+         */
+        private boolean put(Duplicator d) {
+            int row = Arrays.binarySearch(ids, 0, size, d.getDuplicatorId());
+            if (row < 0) {
+                if (-row - 1 != size) {
+                    return false;
+                }
+                row = size++;
+                ensureCapacity(size);
+                ids[row] = d.getDuplicatorId();
+                nameTrigrams.set(row, d.getName());
+            } else if (!Objects.equals(names[row], d.getName())) {
+                nameTrigrams.set(row, d.getName());
+            }
+            names[row] = d.getName();
+            phoneNumbers[row] = d.getPhoneNumber();
+            idNos[row] = d.getIdNo();
+            vehicleNos[row] = d.getVehicleNo();
+            keyNos[row] = d.getKeyNo();
+            remarks[row] = d.getRemarks();
+            imagePaths[row] = d.getImagePath();
+            dates[row] = d.getDateAdded() != null ? epochDay(d.getDateAdded()) : NO_DATE;
+            times[row] = d.getTimeAdded() != null ? d.getTimeAdded().toLocalTime().toSecondOfDay() : NO_TIME;
+            quantities[row] = d.getQuantity();
+            amounts[row] = d.getAmount();
+            phoneLookup.set(row, d.getPhoneNumber());
+            idNoLookup.set(row, d.getIdNo());
+            keyTypes.set(row, d.getKeyType());
+            purposes.set(row, d.getPurpose());
+            // Same rules as the generated service_type / payment_mode columns
+            serviceTypes.set(row, ServiceTypeHelper.detectServiceType(d.getRemarks()).name());
+            paymentModes.set(row, ServiceTypeHelper.hasUpi(d.getRemarks())
+                ? ServiceTypeHelper.PAYMENT_UPI : ServiceTypeHelper.PAYMENT_CASH);
+            live.set(row);
+            for (MaterializedView view : views.values()) {
+                view.rows.set(row, matches(row, view.filter));
+            }
+            return true;
+        }
+
+        private void removeDateRange(int fromDay, int toDay) {
+            for (int row = live.nextSetBit(0); row >= 0; row = live.nextSetBit(row + 1)) {
+                if (dates[row] != NO_DATE && dates[row] >= fromDay && dates[row] <= toDay) {
+                    live.clear(row);
+                }
+            }
+        }
+
+        private List<Duplicator> find(Filter filter) {
+            BitSet rows = matching(filter);
+            List<Duplicator> result = new ArrayList<>(rows.cardinality());
+            for (int row = rows.previousSetBit(size - 1); row >= 0; row = rows.previousSetBit(row - 1)) {
+                result.add(toDuplicator(row));
+            }
+            return result;
+        }
+
+        private List<Duplicator> findSimilarNames(String name, Filter filter, int limit) {
+            List<Duplicator> result = new ArrayList<>();
+            for (int row : nameTrigrams.search(name, matching(filter), limit)) {
+                result.add(toDuplicator(row));
+            }
+            return result;
+        }
+
+        private List<Duplicator> findVisits(String column, String number, int limit) {
+            List<Duplicator> result = new ArrayList<>();
+            int[] rows = lookupColumn(column).rows(LookupColumn.key(number));
+            for (int i = rows.length - 1; i >= 0 && result.size() < limit; i--) {
+                if (live.get(rows[i])) {
+                    result.add(toDuplicator(rows[i]));
+                }
+            }
+            return result;
+        }
+
+        private List<Duplicator> findByPrefix(String column, String prefix, int limit) {
+            List<Duplicator> result = new ArrayList<>();
+            String key = LookupColumn.key(prefix);
+            if (key == null) {
+                return result;
+            }
+            for (int[] rows : lookupColumn(column).withPrefix(key).values()) {
+                for (int i = rows.length - 1; i >= 0; i--) {
+                    if (live.get(rows[i])) {
+                        result.add(toDuplicator(rows[i]));
+                        break;
+                    }
+                }
+                if (result.size() >= limit) {
+                    break;
+                }
+            }
+            return result;
+        }
+
+        private LookupColumn lookupColumn(String column) {
+            switch (column) {
+                case "phone_number":
+                    return phoneLookup;
+                case "id_no":
+                    return idNoLookup;
+                default:
+                    throw new IllegalArgumentException("No lookup index on column: " + column);
+            }
+        }
+
+        private void materialize(String name, Filter filter) {
+            views.put(name, new MaterializedView(filter, matching(filter)));
+        }
+
+        private List<Duplicator> findInView(String name, Date dateFrom) {
+            MaterializedView view = views.get(name);
+            if (view == null) {
+                return null;
+            }
+            BitSet rows = (BitSet) view.rows.clone();
+            rows.and(live);
+            int fromDay = dateFrom != null ? epochDay(dateFrom) : NO_DATE;
+            List<Duplicator> result = new ArrayList<>(rows.cardinality());
+            for (int row = rows.previousSetBit(size - 1); row >= 0; row = rows.previousSetBit(row - 1)) {
+                if (dateFrom == null || (dates[row] != NO_DATE && dates[row] >= fromDay)) {
+                    result.add(toDuplicator(row));
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Single-row version of {@link #matching(Filter)}, used to keep views
+         * current; the two must agree.
+         */
+        private boolean matches(int row, Filter filter) {
+            if (filter.purpose != null && !filter.purpose.equals(purposes.get(row))) {
+                return false;
+            }
+            if (filter.keyTypes != null) {
+                // List.of() rejects contains(null)
+                String keyType = keyTypes.get(row);
+                if (keyType == null || !filter.keyTypes.contains(keyType)) {
+                    return false;
+                }
+            }
+            if (filter.serviceType != null && !filter.serviceType.equals(serviceTypes.get(row))) {
+                return false;
+            }
+            if (filter.paymentMode != null && !filter.paymentMode.equals(paymentModes.get(row))) {
+                return false;
+            }
+            if (filter.dateFrom != null || filter.dateTo != null) {
+                if (dates[row] == NO_DATE
+                        || (filter.dateFrom != null && dates[row] < epochDay(filter.dateFrom))
+                        || (filter.dateTo != null && dates[row] > epochDay(filter.dateTo))) {
+                    return false;
+                }
+            }
+            if (filter.textMatcher != null) {
+                String value = textColumn(filter.textColumn)[row];
+                return value != null && filter.textMatcher.test(value);
+            }
+            return true;
+        }
+
+        private BitSet matching(Filter filter) {
+            BitSet rows = (BitSet) live.clone();
+            if (filter.purpose != null) {
+                rows.and(purposes.rowsWith(filter.purpose));
+            }
+            if (filter.keyTypes != null) {
+                BitSet anyKeyType = new BitSet();
+                for (String keyType : filter.keyTypes) {
+                    anyKeyType.or(keyTypes.rowsWith(keyType));
+                }
+                rows.and(anyKeyType);
+            }
+            if (filter.serviceType != null) {
+                rows.and(serviceTypes.rowsWith(filter.serviceType));
+            }
+            if (filter.paymentMode != null) {
+                rows.and(paymentModes.rowsWith(filter.paymentMode));
+            }
+            if (filter.dateFrom != null || filter.dateTo != null) {
+                int fromDay = filter.dateFrom != null ? epochDay(filter.dateFrom) : Integer.MIN_VALUE + 1;
+                int toDay = filter.dateTo != null ? epochDay(filter.dateTo) : Integer.MAX_VALUE;
+                for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+                    if (dates[row] == NO_DATE || dates[row] < fromDay || dates[row] > toDay) {
+                        rows.clear(row);
+                    }
+                }
+            }
+            if (filter.textMatcher != null) {
+                String[] values = textColumn(filter.textColumn);
+                for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+                    if (values[row] == null || !filter.textMatcher.test(values[row])) {
+                        rows.clear(row);
+                    }
+                }
+            }
+            return rows;
+        }
+
+        private String[] textColumn(String column) {
+            switch (column) {
+                case "name":
+                    return names;
+                case "phone_number":
+                    return phoneNumbers;
+                case "vehicle_no":
+                    return vehicleNos;
+                case "id_no":
+                    return idNos;
+                case "key_no":
+                    return keyNos;
+                case "remarks":
+                    return remarks;
+                default:
+                    throw new IllegalArgumentException("Unknown text column: " + column);
+            }
+        }
+
+        private Duplicator toDuplicator(int row) {
+            Duplicator d = new Duplicator();
+            d.setDuplicatorId(ids[row]);
+            d.setName(names[row]);
+            d.setPhoneNumber(phoneNumbers[row]);
+            d.setIdNo(idNos[row]);
+            d.setVehicleNo(vehicleNos[row]);
+            d.setKeyNo(keyNos[row]);
+            d.setKeyType(keyTypes.get(row));
+            d.setPurpose(purposes.get(row));
+            d.setDateAdded(dates[row] != NO_DATE ? java.sql.Date.valueOf(LocalDate.ofEpochDay(dates[row])) : null);
+            d.setTimeAdded(times[row] != NO_TIME ? java.sql.Time.valueOf(LocalTime.ofSecondOfDay(times[row])) : null);
+            d.setRemarks(remarks[row]);
+            d.setQuantity(quantities[row]);
+            d.setAmount(amounts[row]);
+            d.setImagePath(imagePaths[row]);
+            return d;
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= ids.length) {
+                return;
+            }
+            int grown = Math.max(capacity, ids.length * 2);
+            ids = Arrays.copyOf(ids, grown);
+            names = Arrays.copyOf(names, grown);
+            phoneNumbers = Arrays.copyOf(phoneNumbers, grown);
+            idNos = Arrays.copyOf(idNos, grown);
+            vehicleNos = Arrays.copyOf(vehicleNos, grown);
+            keyNos = Arrays.copyOf(keyNos, grown);
+            remarks = Arrays.copyOf(remarks, grown);
+            imagePaths = Arrays.copyOf(imagePaths, grown);
+            dates = Arrays.copyOf(dates, grown);
+            times = Arrays.copyOf(times, grown);
+            quantities = Arrays.copyOf(quantities, grown);
+            amounts = Arrays.copyOf(amounts, grown);
+        }
+    }
+
+    /**
+     * Dictionary-encoded string column: one int code per row plus the set of
+     * rows holding each distinct value. NULL is code -1 and in no row set.
+     */
+    private static final class DictionaryColumn {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final List<BitSet> rowsByCode = new ArrayList<>();
+        private int[] rowCodes = new int[0];
+
+        private void set(int row, String value) {
+            if (row >= rowCodes.length) {
+                int grown = Math.max(row + 1, rowCodes.length * 2);
+                int oldLength = rowCodes.length;
+                rowCodes = Arrays.copyOf(rowCodes, grown);
+                Arrays.fill(rowCodes, oldLength, grown, -1);
+            } else if (rowCodes[row] >= 0) {
+                rowsByCode.get(rowCodes[row]).clear(row);
+            }
+            int code = -1;
+            if (value != null) {
+                code = codes.computeIfAbsent(value, v -> {
+                    values.add(v);
+                    rowsByCode.add(new BitSet());
+                    return values.size() - 1;
+                });
+                rowsByCode.get(code).set(row);
+            }
+            rowCodes[row] = code;
+        }
+
+        private String get(int row) {
+            int code = rowCodes[row];
+            return code >= 0 ? values.get(code) : null;
+        }
+
+        /** Rows holding the value; the returned set is shared, not a copy. */
+        private BitSet rowsWith(String value) {
+            Integer code = codes.get(value);
+            return code != null ? rowsByCode.get(code) : new BitSet();
+        }
+    }
+
+    private static final class ViewDefinition {
+        private final String definition;
+        private final Filter filter;
+
+        private ViewDefinition(String definition, Filter filter) {
+            this.definition = definition;
+            this.filter = filter;
+        }
+    }
+
+    /** A registered view's filter and the rows of one Columns copy matching it. */
+    private static final class MaterializedView {
+        private final Filter filter;
+        private final BitSet rows;
+
+        private MaterializedView(Filter filter, BitSet rows) {
+            this.filter = filter;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * Rows by normalized number (phone or ID), sorted so a typed prefix is a
+     * range of keys. Most keys hold a handful of rows, so each keeps a small
+     * sorted array rather than a bitset over the whole table.
+     */
+    private static final class LookupColumn {
+        private static final int[] NO_ROWS = new int[0];
+
+        private final TreeMap<String, int[]> rowsByKey = new TreeMap<>();
+        private String[] rowKeys = new String[0];
+
+        /**
+         * Lookup key for a number, or null for blanks and the placeholder left
+         * by "clear data except name".
+         */
+        private static String key(String number) {
+            String key = DuplicatorRepository.searchKey(number);
+            return key.isEmpty() || "DELETED".equals(key) ? null : key;
+        }
+
+        private void set(int row, String number) {
+            if (row >= rowKeys.length) {
+                rowKeys = Arrays.copyOf(rowKeys, Math.max(row + 1, rowKeys.length * 2));
+            }
+            String key = key(number);
+            String oldKey = rowKeys[row];
+            if (Objects.equals(key, oldKey)) {
+                return;
+            }
+            if (oldKey != null) {
+                int[] rows = rowsByKey.get(oldKey);
+                int index = Arrays.binarySearch(rows, row);
+                if (rows.length == 1) {
+                    rowsByKey.remove(oldKey);
+                } else {
+                    int[] remaining = new int[rows.length - 1];
+                    System.arraycopy(rows, 0, remaining, 0, index);
+                    System.arraycopy(rows, index + 1, remaining, index, rows.length - index - 1);
+                    rowsByKey.put(oldKey, remaining);
+                }
+            }
+            rowKeys[row] = key;
+            if (key != null) {
+                int[] rows = rowsByKey.getOrDefault(key, NO_ROWS);
+                int index = -Arrays.binarySearch(rows, row) - 1;
+                int[] grown = new int[rows.length + 1];
+                System.arraycopy(rows, 0, grown, 0, index);
+                grown[index] = row;
+                System.arraycopy(rows, index, grown, index + 1, rows.length - index);
+                rowsByKey.put(key, grown);
+            }
+        }
+
+        /** Rows stored under the key in row order; shared, not a copy. */
+        private int[] rows(String key) {
+            return key != null ? rowsByKey.getOrDefault(key, NO_ROWS) : NO_ROWS;
+        }
+
+        private SortedMap<String, int[]> withPrefix(String prefix) {
+            return rowsByKey.subMap(prefix, prefix + Character.MAX_VALUE);
+        }
+    }
+}
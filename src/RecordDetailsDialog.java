@@ -9,13 +9,15 @@ import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import javax.imageio.ImageIO;
 import javax.swing.*;
 
 public class RecordDetailsDialog extends JDialog implements Printable {
     private Duplicator duplicator;
     private JLabel lblImagePreview;
     private JPanel detailsPanel;
+    private QueryExecutor.Task<BufferedImage> imageTask;
+    // Photo for the printout, read before the print job starts
+    private BufferedImage printImage;
     
     public RecordDetailsDialog(Frame owner, Duplicator duplicator) {
         super(owner, "Record Details - SN: " + duplicator.getDuplicatorId(), true);
@@ -246,20 +248,32 @@ public class RecordDetailsDialog extends JDialog implements Printable {
         lblImagePreview.setText("");
 
         String imagePath = duplicator.getImagePath();
-        if (imagePath != null && !imagePath.trim().isEmpty()) {
-            try {
-                File imageFile = new File(imagePath);
-                if (imageFile.exists()) {
-                    BufferedImage img = ImageIO.read(imageFile);
-                    Image scaledImg = img.getScaledInstance(240, 240, Image.SCALE_SMOOTH);
-                    lblImagePreview.setIcon(new ImageIcon(scaledImg));
-                    return;
-                }
-            } catch (Exception e) {
-                // Fall through to placeholder
-            }
+        BufferedImage cached = ThumbnailCache.getCached(imagePath, 240);
+        if (cached != null) {
+            lblImagePreview.setIcon(new ImageIcon(cached));
+            return;
         }
-
+        if (imagePath == null || imagePath.trim().isEmpty()) {
+            showPlaceholderImage();
+            return;
+        }
+        // Reading the thumbnail may mean decoding the photo first
+        imageTask = QueryExecutor.submit(task -> ThumbnailCache.load(imagePath, 240), thumbnail -> {
+            if (thumbnail != null) {
+                lblImagePreview.setIcon(new ImageIcon(thumbnail));
+            } else {
+                showPlaceholderImage();
+            }
+        }, e -> showPlaceholderImage());
+    }
+    
+    @Override
+    public void dispose() {
+        QueryExecutor.cancel(imageTask);
+        super.dispose();
+    }
+    
+    private void showPlaceholderImage() {
         ImageIcon placeholder = ImagePlaceholderHelper.loadRandomPlaceholder(240, 240);
         if (placeholder != null) {
             lblImagePreview.setIcon(placeholder);
@@ -274,16 +288,26 @@ public class RecordDetailsDialog extends JDialog implements Printable {
         
         boolean doPrint = job.printDialog();
         if (doPrint) {
-            try {
-                job.print();
-                ModernDialog.showInfo(this,
-                    "Record sent to printer successfully!",
-                    "Print Successful");
-            } catch (PrinterException e) {
-                ModernDialog.showError(this,
-                    "Error printing record: " + e.getMessage(),
-                    "Print Error");
-            }
+            QueryExecutor.submit(task -> ThumbnailCache.load(duplicator.getImagePath(), 150), thumbnail -> {
+                printImage = thumbnail;
+                sendToPrinter(job);
+            }, e -> {
+                printImage = null; // Print without the photo
+                sendToPrinter(job);
+            });
+        }
+    }
+    
+    private void sendToPrinter(PrinterJob job) {
+        try {
+            job.print();
+            ModernDialog.showInfo(this,
+                "Record sent to printer successfully!",
+                "Print Successful");
+        } catch (PrinterException e) {
+            ModernDialog.showError(this,
+                "Error printing record: " + e.getMessage(),
+                "Print Error");
         }
     }
     
@@ -427,18 +451,8 @@ public class RecordDetailsDialog extends JDialog implements Printable {
         }
         
         // Print image if available
-        String imagePath = duplicator.getImagePath();
-        if (imagePath != null && !imagePath.trim().isEmpty()) {
-            try {
-                File imageFile = new File(imagePath);
-                if (imageFile.exists()) {
-                    BufferedImage img = ImageIO.read(imageFile);
-                    Image scaledImg = img.getScaledInstance(150, 150, Image.SCALE_SMOOTH);
-                    g2d.drawImage(scaledImg, 400, 100, null);
-                }
-            } catch (Exception e) {
-                // Skip image if error
-            }
+        if (printImage != null) {
+            g2d.drawImage(printImage, 400, 100, null);
         }
         
         // Footer
@@ -0,0 +1,132 @@
+package src;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Every Metrics breakdown of one period, built from a single read of the
+ * period's {@link DailySalesRollup} rows: sales by day, month, key type,
+ * purpose, quantity and parent category, plus the period total. Switching
+ * between metrics, or comparing with the previous period, then needs no
+ * further query.
+ *
+ * Breakdowns are cached in {@link QueryResultCache}, so they are dropped
+ * when a record in the period is written. The maps are unmodifiable; a
+ * missing key_type, purpose or quantity is kept as a null key.
+ */
+final class SalesBreakdown {
+    // Package-private so QueryPlanCheck can EXPLAIN it
+    static final String PERIOD_ROWS_SQL =
+        "SELECT date_added, key_type, purpose, quantity, SUM(amount) FROM daily_sales_rollup " +
+        "WHERE date_added >= ? AND date_added <= ? GROUP BY date_added, key_type, purpose, quantity";
+
+    private double total;
+    private final Map<Integer, Double> byDay = new TreeMap<>();
+    private final Map<Integer, Double> byMonth = new TreeMap<>();
+    private final Map<String, Double> byKeyType = new HashMap<>();
+    private final Map<String, Double> byPurpose = new HashMap<>();
+    private final Map<Integer, Double> byQuantity = new HashMap<>();
+    private final Map<String, Double> byCategory = new HashMap<>();
+
+    private SalesBreakdown() {
+    }
+
+    /**
+     * Breakdown of the records dated from..to (inclusive).
+     */
+    static SalesBreakdown load(Connection conn, LocalDate from, LocalDate to) throws SQLException {
+        Map<String, String> parents = AppConfig.getParentByChild();
+        return QueryResultCache.getOrLoad(PERIOD_ROWS_SQL, params(from, to, parents), from, to,
+            () -> scan(conn, from, to, parents));
+    }
+
+    /**
+     * Breakdown of from..to if it is still cached, or null.
+     */
+    static SalesBreakdown getCached(LocalDate from, LocalDate to) {
+        return QueryResultCache.get(PERIOD_ROWS_SQL, params(from, to, AppConfig.getParentByChild()));
+    }
+
+    private static List<Object> params(LocalDate from, LocalDate to, Map<String, String> parents) {
+        // The category split depends on the configured catalog as well as the rows
+        return Arrays.asList(java.sql.Date.valueOf(from), java.sql.Date.valueOf(to), parents.toString());
+    }
+
+    private static SalesBreakdown scan(Connection conn, LocalDate from, LocalDate to,
+                                       Map<String, String> parents) throws SQLException {
+        SalesBreakdown breakdown = new SalesBreakdown();
+        try (PreparedStatement ps = conn.prepareStatement(PERIOD_ROWS_SQL)) {
+            ps.setDate(1, java.sql.Date.valueOf(from));
+            ps.setDate(2, java.sql.Date.valueOf(to));
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    java.sql.Date date = rs.getDate(1);
+                    String keyType = rs.getString(2);
+                    String purpose = rs.getString(3);
+                    int quantity = rs.getInt(4);
+                    Integer quantityKey = rs.wasNull() ? null : quantity;
+                    double amount = rs.getDouble(5);
+                    breakdown.add(date.toLocalDate(), keyType, purpose, quantityKey, amount, parents);
+                }
+            }
+        }
+        return breakdown;
+    }
+
+    private void add(LocalDate date, String keyType, String purpose, Integer quantity, double amount,
+                     Map<String, String> parents) {
+        total += amount;
+        byDay.merge(date.getDayOfMonth(), amount, Double::sum);
+        byMonth.merge(date.getMonthValue(), amount, Double::sum);
+        byKeyType.merge(keyType, amount, Double::sum);
+        byPurpose.merge(purpose, amount, Double::sum);
+        byQuantity.merge(quantity, amount, Double::sum);
+        String category = isBlank(keyType) ? "Unknown" : keyType;
+        byCategory.merge(parents.getOrDefault(category.toLowerCase(Locale.ROOT), "Other"), amount, Double::sum);
+    }
+
+    double getTotal() {
+        return total;
+    }
+
+    /** Sales per day of month, in day order. */
+    Map<Integer, Double> getByDay() {
+        return Collections.unmodifiableMap(byDay);
+    }
+
+    /** Sales per month (1-12), in month order. */
+    Map<Integer, Double> getByMonth() {
+        return Collections.unmodifiableMap(byMonth);
+    }
+
+    Map<String, Double> getByKeyType() {
+        return Collections.unmodifiableMap(byKeyType);
+    }
+
+    Map<String, Double> getByPurpose() {
+        return Collections.unmodifiableMap(byPurpose);
+    }
+
+    Map<Integer, Double> getByQuantity() {
+        return Collections.unmodifiableMap(byQuantity);
+    }
+
+    /** Sales per parent category of the key type; "Other" for key types outside the catalog. */
+    Map<String, Double> getByCategory() {
+        return Collections.unmodifiableMap(byCategory);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
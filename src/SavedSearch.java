@@ -0,0 +1,104 @@
+package src;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+/**
+ * A named set of Search window criteria, kept in app.properties by
+ * {@link AppConfig}. The date range is stored relative to the day the search
+ * is run ("last 30 days"), so a search saved once stays useful every day.
+ * Unused criteria hold the Search window's "Any" (or empty text).
+ */
+public final class SavedSearch {
+    private final String name;
+    private final String searchField;
+    private final String matchMode;
+    private final String searchText;
+    private final String category;
+    private final String keyType;
+    private final String purpose;
+    private final String serviceType;
+    private final String payment;
+    private final int lastDays;
+
+    public SavedSearch(String name, String searchField, String matchMode, String searchText, String category,
+                       String keyType, String purpose, String serviceType, String payment, int lastDays) {
+        this.name = name;
+        this.searchField = searchField;
+        this.matchMode = matchMode;
+        this.searchText = searchText == null ? "" : searchText;
+        this.category = category;
+        this.keyType = keyType;
+        this.purpose = purpose;
+        this.serviceType = serviceType;
+        this.payment = payment;
+        this.lastDays = Math.max(0, lastDays);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSearchField() {
+        return searchField;
+    }
+
+    public String getMatchMode() {
+        return matchMode;
+    }
+
+    public String getSearchText() {
+        return searchText;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getKeyType() {
+        return keyType;
+    }
+
+    public String getPurpose() {
+        return purpose;
+    }
+
+    public String getServiceType() {
+        return serviceType;
+    }
+
+    public String getPayment() {
+        return payment;
+    }
+
+    /** Number of days back from today (today included), or 0 for any date. */
+    public int getLastDays() {
+        return lastDays;
+    }
+
+    /**
+     * First day of the range when run today, or null for any date.
+     */
+    public Date getDateFrom() {
+        if (lastDays == 0) {
+            return null;
+        }
+        LocalDate from = LocalDate.now().minusDays(lastDays - 1);
+        return Date.from(from.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * Every criterion except the name, for telling whether a stored search
+     * was changed.
+     */
+    String definition() {
+        return String.join("|", searchField, matchMode, searchText, category, keyType, purpose,
+            serviceType, payment, Integer.toString(lastDays));
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,190 @@
+package src;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Versioned schema upgrades for the duplicator database. Applied versions are
+ * recorded in the schema_version table, so a database that is already current
+ * costs a single query at startup and no DDL.
+ *
+ * To change the schema, append a new {@link Migration} with the next version
+ * number; never edit or reorder migrations that have shipped.
+ */
+public final class SchemaMigrator {
+    private static final String CREATE_VERSION_TABLE_SQL =
+        "CREATE TABLE IF NOT EXISTS schema_version (" +
+        "version INT PRIMARY KEY, " +
+        "description VARCHAR(200), " +
+        "applied_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP)";
+    private static final String CURRENT_VERSION_SQL = "SELECT MAX(version) FROM schema_version";
+    // MERGE keeps two PCs that start at the same time (AUTO_SERVER) from failing on the same version
+    private static final String RECORD_VERSION_SQL =
+        "MERGE INTO schema_version (version, description, applied_at) KEY (version) VALUES (?, ?, CURRENT_TIMESTAMP)";
+
+    private static final List<Migration> MIGRATIONS = Collections.unmodifiableList(Arrays.asList(
+        new Migration(1, "Columns added after the original duplicator schema",
+            "ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS key_type VARCHAR(50)",
+            "ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS id_no VARCHAR(50)",
+            "ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS remarks VARCHAR(500)",
+            "ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS quantity INT DEFAULT 1",
+            "ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS amount DECIMAL(10,2) DEFAULT 0.00",
+            "ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS image_path VARCHAR(255)",
+            "ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS purpose VARCHAR(50)",
+            "ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS date_added DATE"),
+        new Migration(2, "Add time_added column",
+            "ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS time_added TIME"),
+        new Migration(3, "Allow NULL vehicle_no",
+            "ALTER TABLE duplicator ALTER COLUMN vehicle_no SET NULL"),
+        // H2 keeps the index current through triggers on insert, update and delete
+        new Migration(4, "Full-text index for All Fields search",
+            "CREATE ALIAS IF NOT EXISTS FT_INIT FOR \"org.h2.fulltext.FullText.init\"",
+            "CALL FT_INIT()",
+            "CALL FT_CREATE_INDEX('PUBLIC', 'DUPLICATOR', 'NAME,PHONE_NUMBER,VEHICLE_NO,ID_NO,KEY_NO,REMARKS')"),
+        // *_key columns serve "starts with" searches, *_rev (reversed key, kept by DuplicatorRepository) "ends with"
+        new Migration(5, "Phone and vehicle search keys", DuplicatorRepository::backfillSearchKeys,
+            "ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS phone_key VARCHAR(50) " +
+                "GENERATED ALWAYS AS (REGEXP_REPLACE(UPPER(phone_number), '[^A-Z0-9]', ''))",
+            "ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS vehicle_key VARCHAR(50) " +
+                "GENERATED ALWAYS AS (REGEXP_REPLACE(UPPER(vehicle_no), '[^A-Z0-9]', ''))",
+            "ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS phone_rev VARCHAR(50)",
+            "ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS vehicle_rev VARCHAR(50)",
+            "CREATE INDEX IF NOT EXISTS idx_phone_key ON duplicator(phone_key)",
+            "CREATE INDEX IF NOT EXISTS idx_vehicle_key ON duplicator(vehicle_key)",
+            "CREATE INDEX IF NOT EXISTS idx_phone_rev ON duplicator(phone_rev)",
+            "CREATE INDEX IF NOT EXISTS idx_vehicle_rev ON duplicator(vehicle_rev)",
+            // H2's full-text index (version 4) cannot be searched once duplicator gains a column until it is rebuilt
+            "CALL FT_REINDEX()"),
+        // Same rules as ServiceTypeHelper.detectServiceType / hasUpi; adding the columns computes them for existing rows
+        new Migration(6, "Structured service_type and payment_mode",
+            "ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS service_type VARCHAR(20) GENERATED ALWAYS AS (" +
+                "CASE WHEN LOWER(remarks) LIKE '%key made in shop%' THEN 'IN_SHOP' " +
+                "WHEN LOWER(remarks) LIKE '%key done on site%' THEN 'ON_SITE' " +
+                "ELSE 'DUPLICATE' END)",
+            "ALTER TABLE duplicator ADD COLUMN IF NOT EXISTS payment_mode VARCHAR(10) GENERATED ALWAYS AS (" +
+                "CASE WHEN LOWER(remarks) LIKE '%upi%' THEN 'UPI' ELSE 'CASH' END)",
+            "CREATE INDEX IF NOT EXISTS idx_service_type ON duplicator(service_type)",
+            "CREATE INDEX IF NOT EXISTS idx_payment_mode ON duplicator(payment_mode)",
+            // Full-text index rebuilt for the new columns, as in version 5
+            "CALL FT_REINDEX()"),
+        // Metrics, export and delete all filter on a date range. One composite serves them all: H2 still
+        // reads the row for the grouped columns, so a second (date_added, purpose) index would only slow writes.
+        // Plans are checked by QueryPlanCheck.
+        new Migration(7, "Date range index for metrics, export and delete",
+            "CREATE INDEX IF NOT EXISTS idx_date_key_type ON duplicator(date_added, key_type)"),
+        // Kept current by the DailySalesRollup trigger from here on; the DELETE makes a retried migration safe
+        new Migration(8, "Daily sales rollup for metrics and statistics",
+            DailySalesRollup.CREATE_TABLE_SQL,
+            DailySalesRollup.CREATE_INDEX_SQL,
+            "DELETE FROM " + DailySalesRollup.TABLE,
+            DailySalesRollup.BACKFILL_SQL,
+            DailySalesRollup.CREATE_TRIGGER_SQL),
+        // H2 does not read the primary key backwards, so newest-first pages sorted every row below the
+        // bound. With a descending index they stop after one page; checked by QueryPlanCheck.
+        new Migration(9, "Descending id index for the Records table",
+            "CREATE INDEX IF NOT EXISTS idx_duplicator_id_desc ON duplicator(duplicator_id DESC)"),
+        // RecordCache re-reads the rows whose updated_at moved, so updates from any client have to move it
+        new Migration(10, "updated_at kept current on update, indexed for the record cache check",
+            "ALTER TABLE duplicator ALTER COLUMN updated_at SET ON UPDATE LOCALTIMESTAMP",
+            "CREATE INDEX IF NOT EXISTS idx_updated_at ON duplicator(updated_at)")
+    ));
+
+    private SchemaMigrator() {
+    }
+
+    public static int getLatestVersion() {
+        return MIGRATIONS.get(MIGRATIONS.size() - 1).version;
+    }
+
+    /**
+     * Version recorded in schema_version, or 0 if the table does not exist yet.
+     */
+    public static int getCurrentVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(CURRENT_VERSION_SQL)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            // 42S02 / 42P01: table not found -> nothing has been recorded yet
+            String state = e.getSQLState();
+            if (state != null && state.startsWith("42")) {
+                return 0;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Apply every migration newer than the recorded version. Returns the
+     * versions that were applied (empty when the schema was already current).
+     */
+    public static List<Integer> migrate(Connection conn) throws SQLException {
+        int current = getCurrentVersion(conn);
+        List<Integer> applied = new ArrayList<>();
+        if (current >= getLatestVersion()) {
+            return applied;
+        }
+
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(CREATE_VERSION_TABLE_SQL);
+        }
+
+        for (Migration migration : MIGRATIONS) {
+            if (migration.version <= current) {
+                continue;
+            }
+            System.out.println("Applying schema migration " + migration.version + ": " + migration.description);
+            try (Statement stmt = conn.createStatement()) {
+                for (String sql : migration.statements) {
+                    stmt.execute(sql);
+                }
+            }
+            if (migration.dataStep != null) {
+                migration.dataStep.apply(conn);
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(RECORD_VERSION_SQL)) {
+                pstmt.setInt(1, migration.version);
+                pstmt.setString(2, migration.description);
+                pstmt.executeUpdate();
+            }
+            applied.add(migration.version);
+        }
+
+        // Column set may have changed; let the repository probe again
+        DuplicatorRepository.resetSchemaProbe();
+        return applied;
+    }
+
+    /**
+     * Data change that cannot be written as plain SQL; runs after the
+     * migration's statements.
+     */
+    @FunctionalInterface
+    private interface DataStep {
+        void apply(Connection conn) throws SQLException;
+    }
+
+    private static final class Migration {
+        private final int version;
+        private final String description;
+        private final List<String> statements;
+        private final DataStep dataStep;
+
+        private Migration(int version, String description, String... statements) {
+            this(version, description, null, statements);
+        }
+
+        private Migration(int version, String description, DataStep dataStep, String... statements) {
+            this.version = version;
+            this.description = description;
+            this.statements = Collections.unmodifiableList(Arrays.asList(statements));
+            this.dataStep = dataStep;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package src;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.swing.table.AbstractTableModel;
+
+/**
+ * Table model for the Search window results. Rows are added in chunks with
+ * one table event per chunk, so a long result can be shown while it is still
+ * being read instead of firing an event for every row.
+ *
+ * EDT only.
+ */
+public class SearchResultsTableModel extends AbstractTableModel {
+    static final String[] COLUMN_NAMES = {"SN", "Name", "Phone", "Vehicle No", "Key No/Model", "Key Type", "Purpose", "ID No", "Date", "Time", "Remarks", "Quantity", "Amount"};
+    // Rows carry the record's image path after the visible columns, for the preview
+    static final int IMAGE_PATH_INDEX = 13;
+    private static final Class<?>[] COLUMN_TYPES = {
+        Integer.class, String.class, String.class, String.class, String.class, String.class,
+        String.class, String.class, String.class, String.class, String.class, Integer.class, String.class
+    };
+
+    private final List<Object[]> rows = new ArrayList<>();
+
+    public void clear() {
+        int count = rows.size();
+        rows.clear();
+        if (count > 0) {
+            fireTableRowsDeleted(0, count - 1);
+        }
+    }
+
+    /**
+     * Replace the contents with the given rows.
+     */
+    public void setRows(List<Object[]> newRows) {
+        rows.clear();
+        rows.addAll(newRows);
+        fireTableDataChanged();
+    }
+
+    public void addRows(List<Object[]> moreRows) {
+        if (moreRows.isEmpty()) {
+            return;
+        }
+        int first = rows.size();
+        rows.addAll(moreRows);
+        fireTableRowsInserted(first, rows.size() - 1);
+    }
+
+    public String getImagePath(int row) {
+        Object[] values = rows.get(row);
+        return values.length > IMAGE_PATH_INDEX ? (String) values[IMAGE_PATH_INDEX] : null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_NAMES.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMN_NAMES[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        return COLUMN_TYPES[columnIndex];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false; // Make table non-editable
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        return rows.get(row)[column];
+    }
+}
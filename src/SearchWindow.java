@@ -12,31 +12,63 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
-import javax.imageio.ImageIO;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import javax.swing.*;
 import javax.swing.border.TitledBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.filechooser.FileNameExtensionFilter;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableRowSorter;
 
 public class SearchWindow extends JFrame {
     private JTextField txtSearch;
     private JComboBox<String> cmbSearchField;
+    private JComboBox<String> cmbMatchMode;
     private JComboBox<String> cmbKeyCategory;
     private JComboBox<String> cmbVehicleKeyType;
     private JComboBox<String> cmbKeyType;
     private JComboBox<String> cmbServiceType;
     private JComboBox<String> cmbPayment;
+    private JComboBox<String> cmbSavedSearch;
     private JTable tblResults;
     private JLabel lblImagePreview;
-    private DefaultTableModel tableModel;
+    private SearchResultsTableModel tableModel;
     private JDateChooser dateFromChooser;
     private JDateChooser dateToChooser;
     private static final int IMAGE_PREVIEW_SIZE = 250;
+    // Thumbnails loaded ahead on each side of the selected row
+    private static final int PREFETCH_ROWS = 2;
+    private static final String MATCH_CONTAINS = "Contains";
+    private static final String MATCH_STARTS_WITH = "Starts With";
+    private static final String MATCH_ENDS_WITH = "Ends With";
+    // Typo-tolerant name search, ranked by similarity; needs the record cache
+    private static final String MATCH_SIMILAR = "Similar";
+    private static final int SIMILAR_NAME_LIMIT = 50;
+    // Query results reach the table in chunks; the first one is about a screenful
+    private static final int FIRST_CHUNK_ROWS = 50;
+    private static final int CHUNK_ROWS = 1000;
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm:ss");
+    private static final String ALL_FIELDS_LIKE_CONDITION =
+        "(LOWER(name) LIKE LOWER(?) OR LOWER(phone_number) LIKE LOWER(?) OR LOWER(vehicle_no) LIKE LOWER(?) " +
+        "OR LOWER(id_no) LIKE LOWER(?) OR LOWER(key_no) LIKE LOWER(?) OR LOWER(remarks) LIKE LOWER(?))";
+    private static final int LIVE_SEARCH_DELAY_MS = 300;
+    private static final String SAVED_SEARCH_PROMPT = "Select...";
+    private QueryExecutor.Task<List<Object[]>> searchTask;
+    private QueryExecutor.Task<BufferedImage> previewTask;
+    private QueryExecutor.Task<Void> prefetchTask;
+    private Timer liveSearchTimer;
+    // Rows of the last completed search; a narrower search while typing is answered from them
+    private SearchResult lastResult;
     
     public SearchWindow() {
         setTitle("Search Key Records");
@@ -48,6 +80,13 @@ public class SearchWindow extends JFrame {
         setAppIcon();
         
         initComponents();
+        
+        // Filters are answered from memory once the table copy is loaded; saved
+        // searches are kept there as views (already registered if opened before)
+        for (SavedSearch saved : AppConfig.getSavedSearches()) {
+            registerView(saved);
+        }
+        RecordCache.reloadAsync();
     }
     
     private void setAppIcon() {
@@ -119,7 +158,7 @@ public class SearchWindow extends JFrame {
             BorderFactory.createLineBorder(new Color(109, 193, 210), 1),
             BorderFactory.createEmptyBorder(2, 5, 2, 5)
         ));
-        txtSearch.setToolTipText("Enter search text and press Enter to search");
+        txtSearch.setToolTipText("Results update as you type; press Enter to search again");
         searchPanel.add(txtSearch, gbc);
         
         // Search button
@@ -137,7 +176,7 @@ public class SearchWindow extends JFrame {
         btnSearch.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                performSearch();
+                performSearch(false);
             }
         });
         searchPanel.add(btnSearch, gbc);
@@ -146,7 +185,27 @@ public class SearchWindow extends JFrame {
         txtSearch.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                performSearch();
+                performSearch(false);
+            }
+        });
+        
+        // Search as you type, once typing pauses
+        liveSearchTimer = new Timer(LIVE_SEARCH_DELAY_MS, e -> performSearch(true));
+        liveSearchTimer.setRepeats(false);
+        txtSearch.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                liveSearchTimer.restart();
+            }
+            
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                liveSearchTimer.restart();
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                liveSearchTimer.restart();
             }
         });
         
@@ -309,6 +368,86 @@ public class SearchWindow extends JFrame {
             }
         });
         searchPanel.add(btnClear, gbc);
+
+        // Match mode (same row as Search); "Ends With" on phone/vehicle is the last-digits lookup
+        gbc.gridx = 6;
+        gbc.gridy = 0;
+        gbc.fill = GridBagConstraints.NONE;
+        gbc.weightx = 0.0;
+        JLabel lblMatch = new JLabel("Match:");
+        lblMatch.setFont(new Font("Arial", Font.BOLD, 12));
+        searchPanel.add(lblMatch, gbc);
+
+        gbc.gridx = 7;
+        gbc.gridy = 0;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        cmbMatchMode = new JComboBox<>(new String[] {MATCH_CONTAINS, MATCH_STARTS_WITH, MATCH_ENDS_WITH});
+        cmbMatchMode.setPreferredSize(new Dimension(120, 30));
+        cmbMatchMode.setBackground(new Color(250, 250, 250));
+        cmbMatchMode.setForeground(new Color(60, 62, 128));
+        cmbMatchMode.setFont(new Font("Arial", Font.PLAIN, 12));
+        cmbMatchMode.setBorder(BorderFactory.createLineBorder(new Color(109, 193, 210), 1));
+        cmbMatchMode.setToolTipText("How the search text must match (not used for All Fields); Similar finds misspelt names");
+        cmbMatchMode.setEnabled(false);
+        searchPanel.add(cmbMatchMode, gbc);
+        cmbSearchField.addActionListener(e -> updateMatchModes());
+        
+        // Saved searches
+        gbc.gridx = 0;
+        gbc.gridy = 3;
+        gbc.fill = GridBagConstraints.NONE;
+        gbc.weightx = 0.0;
+        JLabel lblSaved = new JLabel("Saved:");
+        lblSaved.setFont(new Font("Arial", Font.BOLD, 12));
+        searchPanel.add(lblSaved, gbc);
+        
+        gbc.gridx = 1;
+        gbc.gridy = 3;
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        cmbSavedSearch = new JComboBox<>();
+        cmbSavedSearch.setPreferredSize(new Dimension(150, 30));
+        cmbSavedSearch.setBackground(new Color(250, 250, 250));
+        cmbSavedSearch.setForeground(new Color(60, 62, 128));
+        cmbSavedSearch.setFont(new Font("Arial", Font.PLAIN, 12));
+        cmbSavedSearch.setBorder(BorderFactory.createLineBorder(new Color(109, 193, 210), 1));
+        cmbSavedSearch.setToolTipText("Run a saved search");
+        refreshSavedSearches(null);
+        cmbSavedSearch.addActionListener(e -> {
+            String name = (String) cmbSavedSearch.getSelectedItem();
+            if (name != null && cmbSavedSearch.getSelectedIndex() > 0) {
+                for (SavedSearch saved : AppConfig.getSavedSearches()) {
+                    if (saved.getName().equals(name)) {
+                        runSavedSearch(saved);
+                    }
+                }
+            }
+        });
+        searchPanel.add(cmbSavedSearch, gbc);
+        
+        gbc.gridx = 2;
+        gbc.gridy = 3;
+        gbc.fill = GridBagConstraints.NONE;
+        JButton btnSaveSearch = new JButton("Save");
+        btnSaveSearch.setPreferredSize(new Dimension(100, 30));
+        btnSaveSearch.setBackground(new Color(109, 193, 210));
+        btnSaveSearch.setForeground(new Color(60, 62, 128));
+        btnSaveSearch.setFont(new Font("Arial", Font.BOLD, 12));
+        btnSaveSearch.setFocusPainted(false);
+        btnSaveSearch.setToolTipText("Save the current search criteria under a name");
+        btnSaveSearch.addActionListener(e -> saveCurrentSearch());
+        searchPanel.add(btnSaveSearch, gbc);
+        
+        gbc.gridx = 3;
+        gbc.gridy = 3;
+        JButton btnDeleteSearch = new JButton("Delete");
+        btnDeleteSearch.setPreferredSize(new Dimension(100, 30));
+        btnDeleteSearch.setBackground(new Color(109, 193, 210));
+        btnDeleteSearch.setForeground(new Color(60, 62, 128));
+        btnDeleteSearch.setFont(new Font("Arial", Font.BOLD, 12));
+        btnDeleteSearch.setFocusPainted(false);
+        btnDeleteSearch.setToolTipText("Delete the selected saved search");
+        btnDeleteSearch.addActionListener(e -> deleteSelectedSearch());
+        searchPanel.add(btnDeleteSearch, gbc);
         
         // Add search panel to top
         JPanel topContainer = new JPanel(new BorderLayout());
@@ -325,26 +464,7 @@ public class SearchWindow extends JFrame {
         splitPane.setContinuousLayout(true);
         
         // Table for results
-    String[] columnNames = {"SN", "Name", "Phone", "Vehicle No", "Key No/Model", "Key Type", "Purpose", "ID No", "Date", "Time", "Remarks", "Quantity", "Amount"};
-        tableModel = new DefaultTableModel(columnNames, 0) {
-            private final Class<?>[] columnTypes = new Class<?>[] {
-                Integer.class, String.class, String.class, String.class, String.class, String.class,
-                String.class, String.class, String.class, String.class, String.class, Integer.class, String.class
-            };
-
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Make table non-editable
-            }
-
-            @Override
-            public Class<?> getColumnClass(int columnIndex) {
-                if (columnIndex >= 0 && columnIndex < columnTypes.length) {
-                    return columnTypes[columnIndex];
-                }
-                return Object.class;
-            }
-        };
+        tableModel = new SearchResultsTableModel();
         
         tblResults = new JTable(tableModel) {
             @Override
@@ -439,7 +559,7 @@ public class SearchWindow extends JFrame {
         tblResults.setComponentPopupMenu(contextMenu);
         
         // Add row sorting
-        TableRowSorter<DefaultTableModel> sorter = new TableRowSorter<>(tableModel);
+        TableRowSorter<SearchResultsTableModel> sorter = new TableRowSorter<>(tableModel);
         tblResults.setRowSorter(sorter);
         
         JScrollPane tableScrollPane = new JScrollPane(tblResults);
@@ -509,13 +629,25 @@ public class SearchWindow extends JFrame {
         add(splitPane, BorderLayout.CENTER);
     }
     
-    private void performSearch() {
-        tableModel.setRowCount(0); // Clear existing results
+    /**
+     * Search with the current text and filters. A live search (while typing)
+     * is skipped for empty text, is answered in memory when the previous
+     * result already contains every match, and does not pop up a dialog when
+     * nothing is found.
+     */
+    private void performSearch(boolean live) {
+        String searchText = txtSearch.getText().trim();
+        if (live && searchText.isEmpty()) {
+            return;
+        }
+        liveSearchTimer.stop();
+        
+        tableModel.clear(); // Clear existing results
         lblImagePreview.setIcon(null);
         lblImagePreview.setText("No Image Selected");
         
-        String searchText = txtSearch.getText().trim();
         String searchField = (String) cmbSearchField.getSelectedItem();
+        String matchMode = (String) cmbMatchMode.getSelectedItem();
         String categoryFilter = (String) cmbKeyCategory.getSelectedItem();
         String purposeFilter = (String) cmbKeyType.getSelectedItem();
         String keyTypeFilter = (String) cmbVehicleKeyType.getSelectedItem();
@@ -524,197 +656,588 @@ public class SearchWindow extends JFrame {
         java.util.Date dateFrom = dateFromChooser.getDate();
         java.util.Date dateTo = dateToChooser.getDate();
         
-        StringBuilder queryBuilder = new StringBuilder();
-        queryBuilder.append("SELECT * FROM duplicator WHERE 1=1 ");
-        
-        if (!searchText.isEmpty()) {
-            switch(searchField) {
-                case "Name":
-                    queryBuilder.append("AND LOWER(name) LIKE LOWER(?) ");
-                    break;
-                case "Phone Number":
-                    queryBuilder.append("AND LOWER(phone_number) LIKE LOWER(?) ");
-                    break;
-                case "Vehicle Number":
-                    queryBuilder.append("AND LOWER(vehicle_no) LIKE LOWER(?) ");
-                    break;
-                case "ID Number":
-                    queryBuilder.append("AND LOWER(id_no) LIKE LOWER(?) ");
-                    break;
-                case "Key No/Model":
-                    queryBuilder.append("AND LOWER(key_no) LIKE LOWER(?) ");
-                    break;
-                case "Remarks":
-                    queryBuilder.append("AND LOWER(remarks) LIKE LOWER(?) ");
-                    break;
-                default: // All Fields
-                    queryBuilder.append("AND (LOWER(name) LIKE LOWER(?) OR LOWER(phone_number) LIKE LOWER(?) OR LOWER(vehicle_no) LIKE LOWER(?) OR LOWER(id_no) LIKE LOWER(?) OR LOWER(key_no) LIKE LOWER(?) OR LOWER(remarks) LIKE LOWER(?)) ");
-                    break;
-            }
-        }
+        // Filters other than the search text; shared by every variant of the query
+        StringBuilder filters = new StringBuilder();
+        List<Object> filterParams = new ArrayList<>();
+        RecordCache.Filter cacheFilter = cacheFilter(categoryFilter, keyTypeFilter, purposeFilter,
+            serviceTypeFilter, paymentFilter);
         
         if (!"Any".equals(purposeFilter)) {
-            queryBuilder.append("AND purpose = ? ");
+            filters.append("AND purpose = ? ");
+            filterParams.add(purposeFilter);
         }
 
         if (!"Any".equals(keyTypeFilter)) {
-            queryBuilder.append("AND key_type = ? ");
+            filters.append("AND key_type = ? ");
+            filterParams.add(keyTypeFilter);
         } else if (categoryFilter != null && !"Any".equals(categoryFilter)) {
              List<String> children = AppConfig.getChildCategories(categoryFilter);
              if (!children.isEmpty()) {
-                 queryBuilder.append("AND key_type IN (");
+                 filters.append("AND key_type IN (");
                  for (int i = 0; i < children.size(); i++) {
-                     queryBuilder.append(i == 0 ? "?" : ", ?");
+                     filters.append(i == 0 ? "?" : ", ?");
                  }
-                 queryBuilder.append(") ");
+                 filters.append(") ");
+                 filterParams.addAll(children);
              } else {
-                 queryBuilder.append("AND 1=0 "); 
+                 filters.append("AND 1=0 "); 
              }
         }
         
         if (!"Any".equals(serviceTypeFilter)) {
-            switch (serviceTypeFilter) {
-                case "Duplicate":
-                    queryBuilder.append("AND (remarks IS NULL OR remarks = '' OR (LOWER(remarks) NOT LIKE '%")
-                        .append(ServiceTypeHelper.IN_SHOP_KEYWORD)
-                        .append("%' AND LOWER(remarks) NOT LIKE '%")
-                        .append(ServiceTypeHelper.ON_SITE_KEYWORD)
-                        .append("%')) ");
-                    break;
-                case "In-shop":
-                    queryBuilder.append("AND LOWER(remarks) LIKE '%")
-                        .append(ServiceTypeHelper.IN_SHOP_KEYWORD)
-                        .append("%' ");
-                    break;
-                case "On-site":
-                    queryBuilder.append("AND LOWER(remarks) LIKE '%")
-                        .append(ServiceTypeHelper.ON_SITE_KEYWORD)
-                        .append("%' ");
-                    break;
+            for (ServiceTypeHelper.ServiceType type : ServiceTypeHelper.ServiceType.values()) {
+                if (type.getDisplayName().equals(serviceTypeFilter)) {
+                    filters.append("AND service_type = ? ");
+                    filterParams.add(type.name());
+                }
             }
         }
         
         if ("UPI".equals(paymentFilter)) {
-            queryBuilder.append("AND LOWER(remarks) LIKE '%")
-                .append(ServiceTypeHelper.UPI_KEYWORD)
-                .append("%' ");
+            filters.append("AND payment_mode = ? ");
+            filterParams.add(ServiceTypeHelper.PAYMENT_UPI);
         } else if ("Cash".equals(paymentFilter)) {
-            queryBuilder.append("AND (remarks IS NULL OR remarks = '' OR LOWER(remarks) NOT LIKE '%")
-                .append(ServiceTypeHelper.UPI_KEYWORD)
-                .append("%') ");
+            filters.append("AND payment_mode = ? ");
+            filterParams.add(ServiceTypeHelper.PAYMENT_CASH);
         }
 
         if (dateFrom != null) {
-            queryBuilder.append("AND date_added >= ? ");
+            filters.append("AND date_added >= ? ");
+            filterParams.add(new java.sql.Date(dateFrom.getTime()));
+            cacheFilter.dateFrom(dateFrom);
         }
         
         if (dateTo != null) {
-            queryBuilder.append("AND date_added <= ? ");
+            filters.append("AND date_added <= ? ");
+            filterParams.add(new java.sql.Date(dateTo.getTime()));
+            cacheFilter.dateTo(dateTo);
         }
         
-        queryBuilder.append("ORDER BY duplicator_id DESC");
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(queryBuilder.toString())) {
-            
-            int paramIndex = 1;
+        SearchQuery query;
+        boolean keyed = false;
+        if (searchText.isEmpty()) {
+            query = new SearchQuery(null, List.of(), filters, filterParams, null);
+        } else if ("All Fields".equals(searchField)) {
+            // The full-text word list finds the rows to check; the scan stays as the fallback
+            String searchPattern = "%" + searchText + "%";
+            SearchQuery scan = new SearchQuery(ALL_FIELDS_LIKE_CONDITION, Collections.nCopies(6, searchPattern),
+                filters, filterParams, null);
+            String word = DuplicatorRepository.fullTextWord(searchText);
+            if (word == null) {
+                query = scan;
+            } else if (word.length() == searchText.length()) {
+                query = new SearchQuery(DuplicatorRepository.FULL_TEXT_WORD_CONDITION, List.of("%" + word + "%"),
+                    filters, filterParams, scan);
+            } else {
+                // Text spanning several words: narrow by its longest word, then match the whole text
+                List<Object> params = new ArrayList<>();
+                params.add("%" + word + "%");
+                params.addAll(Collections.nCopies(6, searchPattern));
+                query = new SearchQuery(DuplicatorRepository.FULL_TEXT_WORD_CONDITION + " AND " +
+                    ALL_FIELDS_LIKE_CONDITION, params, filters, filterParams, scan);
+            }
+        } else {
+            String column = searchColumn(searchField);
+            String pattern;
+            switch (matchMode) {
+                case MATCH_STARTS_WITH:
+                    pattern = searchText + "%";
+                    break;
+                case MATCH_ENDS_WITH:
+                    pattern = "%" + searchText;
+                    break;
+                default:
+                    pattern = "%" + searchText + "%";
+                    break;
+            }
+            query = new SearchQuery("LOWER(" + column + ") LIKE LOWER(?)",
+                List.of(pattern), filters, filterParams, null);
             
-            if (!searchText.isEmpty()) {
-                String searchPattern = "%" + searchText + "%";
-                
-                if (searchField.equals("All Fields")) {
-                    pstmt.setString(paramIndex++, searchPattern);
-                    pstmt.setString(paramIndex++, searchPattern);
-                    pstmt.setString(paramIndex++, searchPattern);
-                    pstmt.setString(paramIndex++, searchPattern);
-                    pstmt.setString(paramIndex++, searchPattern);
-                    pstmt.setString(paramIndex++, searchPattern);
+            // Phone and vehicle numbers have indexed search keys; the plain LIKE stays as the fallback
+            String key = DuplicatorRepository.searchKey(searchText);
+            keyed = isKeyed(column, searchText, matchMode);
+            if (keyed) {
+                String prefix = "phone_number".equals(column) ? "phone" : "vehicle";
+                if (MATCH_STARTS_WITH.equals(matchMode)) {
+                    query = new SearchQuery(prefix + "_key LIKE ?", List.of(key + "%"), filters, filterParams, query);
                 } else {
-                    pstmt.setString(paramIndex++, searchPattern);
+                    // phone_rev / vehicle_rev are written by the application, so rows saved by an older client
+                    // have none; an empty result is tried again with the plain LIKE to find those
+                    query = new SearchQuery(prefix + "_rev LIKE ?",
+                        List.of(DuplicatorRepository.reversedSearchKey(searchText) + "%"), filters, filterParams,
+                        query, true);
                 }
             }
-            
-            if (!"Any".equals(purposeFilter)) {
-                pstmt.setString(paramIndex++, purposeFilter);
-            }
-
-            if (!"Any".equals(keyTypeFilter)) {
-                pstmt.setString(paramIndex++, keyTypeFilter);
-            } else if (categoryFilter != null && !"Any".equals(categoryFilter)) {
-                 List<String> children = AppConfig.getChildCategories(categoryFilter);
-                 for (String child : children) {
-                     pstmt.setString(paramIndex++, child);
-                 }
+        }
+        
+        String filterKey = filters + " " + filterParams;
+        QueryExecutor.cancel(searchTask);
+        
+        if (MATCH_SIMILAR.equals(matchMode) && "Name".equals(searchField) && !searchText.isEmpty()) {
+            List<Duplicator> similar = RecordCache.findSimilarNames(searchText, cacheFilter, SIMILAR_NAME_LIMIT);
+            if (similar != null) {
+                searchTask = null;
+                lastResult = null;
+                showResults(toRows(similar), live);
+                return;
             }
-            
-            if (dateFrom != null) {
-                pstmt.setDate(paramIndex++, new java.sql.Date(dateFrom.getTime()));
+            // Cache still loading: the query below treats Similar as Contains
+        }
+        
+        // Everything but All Fields text can be answered from the in-memory copy of the table
+        if (searchText.isEmpty() || !"All Fields".equals(searchField)) {
+            if (!searchText.isEmpty()) {
+                cacheFilter.text(searchColumn(searchField), textMatcher(searchText, matchMode, keyed));
             }
-            
-            if (dateTo != null) {
-                pstmt.setDate(paramIndex++, new java.sql.Date(dateTo.getTime()));
+            List<Duplicator> cached = RecordCache.find(cacheFilter);
+            if (cached != null) {
+                searchTask = null;
+                List<Object[]> rows = toRows(cached);
+                lastResult = new SearchResult(searchField, matchMode, filterKey, keyed, searchText, rows);
+                showResults(rows, live);
+                return;
             }
-            
-            ResultSet rs = pstmt.executeQuery();
-            SimpleDateFormat dateFormat = new SimpleDateFormat("dd-MM-yyyy");
-            
-            while (rs.next()) {
-                java.sql.Date dateAdded = rs.getDate("date_added");
-                String dateStr = (dateAdded != null) ? dateFormat.format(dateAdded) : "";
-                
-                java.sql.Time timeAdded = null;
-                try {
-                    timeAdded = rs.getTime("time_added");
-                } catch (SQLException timeEx) {
-                    // Column might not exist in older databases
+        }
+        
+        if (live && lastResult != null && lastResult.covers(searchField, matchMode, filterKey, keyed, searchText)) {
+            searchTask = null;
+            lastResult = lastResult.refine(searchText, keyed);
+            showResults(lastResult.rows, true);
+            return;
+        }
+        
+        final SearchQuery searchQuery = query;
+        final boolean keyedQuery = keyed;
+        List<Object[]> cachedRows = QueryResultCache.get(searchQuery.sql, searchQuery.params);
+        if (cachedRows != null) {
+            searchTask = null;
+            lastResult = new SearchResult(searchField, matchMode, filterKey, keyedQuery, searchText, cachedRows);
+            showResults(cachedRows, live);
+            return;
+        }
+        setTitle("Search Key Records - Searching...");
+        searchTask = QueryExecutor.submit(task -> {
+            long stamp = QueryResultCache.stamp();
+            List<Object[]> rows = runSearchQuery(searchQuery, task, chunk -> {
+                tableModel.addRows(chunk);
+                if (tblResults.getSelectedRow() < 0 && tableModel.getRowCount() > 0) {
+                    tblResults.setRowSelectionInterval(0, 0);
                 }
-                SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
-                String timeStr = (timeAdded != null) ? timeFormat.format(timeAdded) : "";
-                
-                String keyType = rs.getString("key_type");
-                // Category removed from table view
-                
-                Object[] row = {
-                    rs.getInt("duplicator_id"),
-                    rs.getString("name"),
-                    rs.getString("phone_number"),
-                    rs.getString("vehicle_no"),
-                    rs.getString("key_no"),
-                    keyType,
-                    rs.getString("purpose"),
-                    rs.getString("id_no"),
-                    dateStr,
-                    timeStr,
-                    rs.getString("remarks"),
-                    rs.getInt("quantity"),
-                    String.format("%.2f", rs.getDouble("amount"))
-                };
-                tableModel.addRow(row);
+                setTitle("Search Key Records - Searching... " + tableModel.getRowCount() + " record(s) so far");
+            });
+            // A cancelled search stopped part way through
+            if (!task.isCancelled()) {
+                QueryResultCache.put(searchQuery.sql, searchQuery.params, null, null,
+                    Collections.unmodifiableList(rows), stamp);
             }
-            
-            int resultCount = tableModel.getRowCount();
-            if (resultCount > 0) {
+            return rows;
+        }, rows -> {
+            lastResult = new SearchResult(searchField, matchMode, filterKey, keyedQuery, searchText, rows);
+            finishResults(live);
+        }, e -> {
+            setTitle("Search Key Records");
+            ModernDialog.showError(this, 
+                "Error searching records: " + e.getMessage(), 
+                "Database Error");
+        });
+    }
+    
+    private void showResults(List<Object[]> rows, boolean live) {
+        tableModel.setRows(rows);
+        finishResults(live);
+    }
+    
+    /**
+     * Update the title and selection once every row of a search is in the table.
+     */
+    private void finishResults(boolean live) {
+        int resultCount = tableModel.getRowCount();
+        if (resultCount > 0) {
+            if (tblResults.getSelectedRow() < 0) {
                 tblResults.setRowSelectionInterval(0, 0);
-                // Update window title with result count
-                setTitle("Search Key Records - " + resultCount + " record(s) found");
-            } else {
-                setTitle("Search Key Records - No results");
+            }
+            // Update window title with result count
+            setTitle("Search Key Records - " + resultCount + " record(s) found");
+        } else {
+            setTitle("Search Key Records - No results");
+            if (!live) {
                 ModernDialog.showInfo(this, 
                     "No records found matching your criteria.", 
                     "Search Results");
-                showNoResultsImage();
             }
-            
+            showNoResultsImage();
+        }
+    }
+    
+    /**
+     * Match mode only applies to a single field, and Similar only to names.
+     */
+    private void updateMatchModes() {
+        String field = (String) cmbSearchField.getSelectedItem();
+        cmbMatchMode.setEnabled(!"All Fields".equals(field));
+        boolean hasSimilar = ((DefaultComboBoxModel<String>) cmbMatchMode.getModel()).getIndexOf(MATCH_SIMILAR) >= 0;
+        if ("Name".equals(field) && !hasSimilar) {
+            cmbMatchMode.addItem(MATCH_SIMILAR);
+        } else if (!"Name".equals(field) && hasSimilar) {
+            if (MATCH_SIMILAR.equals(cmbMatchMode.getSelectedItem())) {
+                cmbMatchMode.setSelectedIndex(0);
+            }
+            cmbMatchMode.removeItem(MATCH_SIMILAR);
+        }
+    }
+    
+    private static boolean isKeyed(String column, String text, String matchMode) {
+        return ("phone_number".equals(column) || "vehicle_no".equals(column))
+            && !DuplicatorRepository.searchKey(text).isEmpty() && !MATCH_CONTAINS.equals(matchMode);
+    }
+    
+    private void refreshSavedSearches(String selectName) {
+        DefaultComboBoxModel<String> model = new DefaultComboBoxModel<>();
+        model.addElement(SAVED_SEARCH_PROMPT);
+        for (SavedSearch saved : AppConfig.getSavedSearches()) {
+            model.addElement(saved.getName());
+        }
+        // Set the model before selecting, so the selection does not run the search
+        cmbSavedSearch.setModel(model);
+        if (selectName != null) {
+            model.setSelectedItem(selectName);
+        }
+    }
+    
+    /**
+     * Save the current criteria. A From date is stored as "last N days", so
+     * the search keeps following today; the To date is not saved.
+     */
+    private void saveCurrentSearch() {
+        String current = cmbSavedSearch.getSelectedIndex() > 0 ? (String) cmbSavedSearch.getSelectedItem() : "";
+        String name = JOptionPane.showInputDialog(this,
+            "Name for this search (a From date is saved as \"last N days\"):", current);
+        if (name == null || name.trim().isEmpty()) {
+            return;
+        }
+        int lastDays = 0;
+        java.util.Date dateFrom = dateFromChooser.getDate();
+        if (dateFrom != null) {
+            LocalDate from = new java.sql.Date(dateFrom.getTime()).toLocalDate();
+            lastDays = (int) Math.max(1, ChronoUnit.DAYS.between(from, LocalDate.now()) + 1);
+        }
+        SavedSearch saved = AppConfig.saveSearch(new SavedSearch(name.trim(),
+            (String) cmbSearchField.getSelectedItem(),
+            (String) cmbMatchMode.getSelectedItem(),
+            txtSearch.getText().trim(),
+            (String) cmbKeyCategory.getSelectedItem(),
+            (String) cmbVehicleKeyType.getSelectedItem(),
+            (String) cmbKeyType.getSelectedItem(),
+            (String) cmbServiceType.getSelectedItem(),
+            cmbPayment != null ? (String) cmbPayment.getSelectedItem() : "Any",
+            lastDays));
+        registerView(saved);
+        refreshSavedSearches(saved.getName());
+    }
+    
+    private void deleteSelectedSearch() {
+        if (cmbSavedSearch.getSelectedIndex() <= 0) {
+            return;
+        }
+        String name = (String) cmbSavedSearch.getSelectedItem();
+        int response = ModernDialog.showConfirm(this,
+            "Delete the saved search \"" + name + "\"?",
+            "Delete Saved Search");
+        if (response == JOptionPane.YES_OPTION) {
+            AppConfig.deleteSavedSearch(name);
+            RecordCache.dropView(name);
+            refreshSavedSearches(null);
+        }
+    }
+    
+    /**
+     * Show the saved search's criteria and its results, read from its view
+     * in the record cache when there is one.
+     */
+    private void runSavedSearch(SavedSearch saved) {
+        cmbSearchField.setSelectedItem(saved.getSearchField());
+        cmbMatchMode.setSelectedItem(saved.getMatchMode());
+        txtSearch.setText(saved.getSearchText());
+        cmbKeyCategory.setSelectedItem(saved.getCategory());
+        cmbVehicleKeyType.setSelectedItem(saved.getKeyType());
+        cmbKeyType.setSelectedItem(saved.getPurpose());
+        cmbServiceType.setSelectedItem(saved.getServiceType());
+        if (cmbPayment != null) cmbPayment.setSelectedItem(saved.getPayment());
+        dateFromChooser.setDate(saved.getDateFrom());
+        dateToChooser.setDate(null);
+        
+        List<Duplicator> records = hasView(saved) ? RecordCache.findInView(saved.getName(), saved.getDateFrom()) : null;
+        if (records == null) {
+            performSearch(false);
+            return;
+        }
+        liveSearchTimer.stop();
+        QueryExecutor.cancel(searchTask);
+        searchTask = null;
+        lastResult = null;
+        lblImagePreview.setIcon(null);
+        lblImagePreview.setText("No Image Selected");
+        showResults(toRows(records), false);
+    }
+    
+    /**
+     * All Fields text and Similar names are not answered by the record cache
+     * filters, so those searches have no view and run as usual.
+     */
+    private static boolean hasView(SavedSearch saved) {
+        return saved.getSearchText().isEmpty()
+            || (!"All Fields".equals(saved.getSearchField()) && !MATCH_SIMILAR.equals(saved.getMatchMode()));
+    }
+    
+    private static void registerView(SavedSearch saved) {
+        if (!hasView(saved)) {
+            return;
+        }
+        RecordCache.Filter filter = cacheFilter(saved.getCategory(), saved.getKeyType(), saved.getPurpose(),
+            saved.getServiceType(), saved.getPayment());
+        if (!saved.getSearchText().isEmpty()) {
+            String column = searchColumn(saved.getSearchField());
+            filter.text(column, textMatcher(saved.getSearchText(), saved.getMatchMode(),
+                isKeyed(column, saved.getSearchText(), saved.getMatchMode())));
+        }
+        // The category's key types are part of the definition: editing the catalog rebuilds the view
+        RecordCache.registerView(saved.getName(),
+            saved.definition() + "|" + AppConfig.getChildCategories(saved.getCategory()), filter);
+    }
+    
+    /**
+     * Record cache filter for the Search window's drop-down filters; the
+     * in-memory counterpart of the SQL built in performSearch.
+     */
+    private static RecordCache.Filter cacheFilter(String category, String keyType, String purpose,
+                                                  String serviceType, String payment) {
+        RecordCache.Filter filter = new RecordCache.Filter();
+        if (!"Any".equals(purpose)) {
+            filter.purpose(purpose);
+        }
+        if (!"Any".equals(keyType)) {
+            filter.keyTypes(List.of(keyType));
+        } else if (category != null && !"Any".equals(category)) {
+            filter.keyTypes(AppConfig.getChildCategories(category));
+        }
+        for (ServiceTypeHelper.ServiceType type : ServiceTypeHelper.ServiceType.values()) {
+            if (type.getDisplayName().equals(serviceType)) {
+                filter.serviceType(type.name());
+            }
+        }
+        if ("UPI".equals(payment)) {
+            filter.paymentMode(ServiceTypeHelper.PAYMENT_UPI);
+        } else if ("Cash".equals(payment)) {
+            filter.paymentMode(ServiceTypeHelper.PAYMENT_CASH);
+        }
+        return filter;
+    }
+    
+    private static String searchColumn(String searchField) {
+        switch (searchField) {
+            case "Name":
+                return "name";
+            case "Phone Number":
+                return "phone_number";
+            case "Vehicle Number":
+                return "vehicle_no";
+            case "ID Number":
+                return "id_no";
+            case "Key No/Model":
+                return "key_no";
+            case "Remarks":
+                return "remarks";
+            default:
+                throw new IllegalArgumentException("Unknown search field: " + searchField);
+        }
+    }
+    
+    /**
+     * In-memory equivalent of the single-field search SQL: search keys for
+     * phone / vehicle starts / ends with, otherwise a case-insensitive LIKE.
+     */
+    private static Predicate<String> textMatcher(String text, String matchMode, boolean keyed) {
+        String needle = keyed ? DuplicatorRepository.searchKey(text) : text.toLowerCase(Locale.ROOT);
+        return value -> {
+            String haystack = keyed ? DuplicatorRepository.searchKey(value) : value.toLowerCase(Locale.ROOT);
+            switch (matchMode) {
+                case MATCH_STARTS_WITH:
+                    return haystack.startsWith(needle);
+                case MATCH_ENDS_WITH:
+                    return haystack.endsWith(needle);
+                default:
+                    return haystack.contains(needle);
+            }
+        };
+    }
+    
+    /**
+     * Table rows for records taken from the record cache, in the layout
+     * built by executeSearch.
+     */
+    private static List<Object[]> toRows(List<Duplicator> records) {
+        List<Object[]> rows = new ArrayList<>(records.size());
+        for (Duplicator d : records) {
+            java.util.Date dateAdded = d.getDateAdded();
+            rows.add(new Object[] {
+                d.getDuplicatorId(),
+                d.getName(),
+                d.getPhoneNumber(),
+                d.getVehicleNo(),
+                d.getKeyNo(),
+                d.getKeyType(),
+                d.getPurpose(),
+                d.getIdNo(),
+                dateAdded != null ? new java.sql.Date(dateAdded.getTime()).toLocalDate().format(DATE_FORMAT) : "",
+                d.getTimeAdded() != null ? d.getTimeAdded().toLocalTime().format(TIME_FORMAT) : "",
+                d.getRemarks(),
+                d.getQuantity(),
+                String.format("%.2f", d.getAmount()),
+                d.getImagePath()
+            });
+        }
+        return rows;
+    }
+    
+    /**
+     * Position of a search field in the result rows built by executeSearch.
+     */
+    private static int searchColumnIndex(String searchField) {
+        switch (searchField) {
+            case "Name":
+                return 1;
+            case "Phone Number":
+                return 2;
+            case "Vehicle Number":
+                return 3;
+            case "Key No/Model":
+                return 4;
+            case "ID Number":
+                return 7;
+            case "Remarks":
+                return 10;
+            default:
+                throw new IllegalArgumentException("Unknown search field: " + searchField);
+        }
+    }
+    
+    /**
+     * Run a search, moving on to its fallback when the indexed query cannot be
+     * queried (e.g. a database that has not been migrated), or has no match
+     * if the query asks for that. An indexed query that runs returns the same
+     * rows as its fallback, so an empty result is normally final. Rows are handed to onChunk on the EDT as they are read, and all of them
+     * are returned at the end. Runs on the query executor.
+     */
+    private static List<Object[]> runSearchQuery(SearchQuery query, QueryExecutor.Task<?> task,
+                                                 Consumer<List<Object[]>> onChunk) throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        try {
+            executeSearch(query.sql, query.params, task, rows, onChunk);
         } catch (SQLException e) {
-            ModernDialog.showError(this, 
-                "Error searching records: " + e.getMessage(), 
-                "Database Error");
+            // Once rows have been shown, scanning again would show them twice
+            if (query.fallback == null || task.isCancelled() || !rows.isEmpty()) {
+                throw e;
+            }
+            System.err.println("Indexed search failed, scanning instead: " + e.getMessage());
+            return runSearchQuery(query.fallback, task, onChunk);
+        }
+        if (rows.isEmpty() && query.fallbackWhenEmpty && !task.isCancelled()) {
+            return runSearchQuery(query.fallback, task, onChunk);
+        }
+        return rows;
+    }
+    
+    /**
+     * Execute a search query, converting the result set to table rows. Rows
+     * are collected in {@code rows} and passed to onChunk in chunks, the
+     * first one small so the table fills straight away.
+     */
+    private static void executeSearch(String sql, List<Object> params, QueryExecutor.Task<?> task,
+                                      List<Object[]> rows, Consumer<List<Object[]>> onChunk) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            for (int i = 0; i < params.size(); i++) {
+                pstmt.setObject(i + 1, params.get(i));
+            }
+            
+            try (ResultSet rs = task.executeQuery(pstmt)) {
+                int idColumn = rs.findColumn("duplicator_id");
+                int nameColumn = rs.findColumn("name");
+                int phoneColumn = rs.findColumn("phone_number");
+                int vehicleColumn = rs.findColumn("vehicle_no");
+                int keyNoColumn = rs.findColumn("key_no");
+                int keyTypeColumn = rs.findColumn("key_type");
+                int purposeColumn = rs.findColumn("purpose");
+                int idNoColumn = rs.findColumn("id_no");
+                int dateColumn = rs.findColumn("date_added");
+                int remarksColumn = rs.findColumn("remarks");
+                int quantityColumn = rs.findColumn("quantity");
+                int amountColumn = rs.findColumn("amount");
+                int imagePathColumn = rs.findColumn("image_path");
+                // time_added might not exist in older databases
+                int timeColumn = -1;
+                try {
+                    timeColumn = rs.findColumn("time_added");
+                } catch (SQLException noTimeColumn) {
+                    // Leave the Time column empty
+                }
+                
+                List<Object[]> chunk = new ArrayList<>();
+                int chunkSize = FIRST_CHUNK_ROWS;
+                while (rs.next() && !task.isCancelled()) {
+                    java.sql.Date dateAdded = rs.getDate(dateColumn);
+                    java.sql.Time timeAdded = timeColumn > 0 ? rs.getTime(timeColumn) : null;
+                    
+                    Object[] row = new Object[] {
+                        rs.getInt(idColumn),
+                        rs.getString(nameColumn),
+                        rs.getString(phoneColumn),
+                        rs.getString(vehicleColumn),
+                        rs.getString(keyNoColumn),
+                        rs.getString(keyTypeColumn),
+                        rs.getString(purposeColumn),
+                        rs.getString(idNoColumn),
+                        dateAdded != null ? dateAdded.toLocalDate().format(DATE_FORMAT) : "",
+                        timeAdded != null ? timeAdded.toLocalTime().format(TIME_FORMAT) : "",
+                        rs.getString(remarksColumn),
+                        rs.getInt(quantityColumn),
+                        String.format("%.2f", rs.getDouble(amountColumn)),
+                        rs.getString(imagePathColumn)
+                    };
+                    rows.add(row);
+                    chunk.add(row);
+                    if (chunk.size() >= chunkSize) {
+                        deliverChunk(task, chunk, onChunk);
+                        chunk = new ArrayList<>();
+                        chunkSize = CHUNK_ROWS;
+                    }
+                }
+                deliverChunk(task, chunk, onChunk);
+            }
         }
     }
     
+    private static void deliverChunk(QueryExecutor.Task<?> task, List<Object[]> chunk,
+                                     Consumer<List<Object[]>> onChunk) {
+        if (!chunk.isEmpty()) {
+            task.runOnEdt(() -> onChunk.accept(chunk));
+        }
+    }
+    
+    @Override
+    public void dispose() {
+        liveSearchTimer.stop();
+        QueryExecutor.cancel(searchTask);
+        QueryExecutor.cancel(previewTask);
+        QueryExecutor.cancel(prefetchTask);
+        super.dispose();
+    }
+    
     private void clearFilters() {
         txtSearch.setText("");
         cmbSearchField.setSelectedIndex(0);
+        cmbMatchMode.setSelectedIndex(0);
         cmbKeyCategory.setSelectedIndex(0);
         cmbKeyType.setSelectedIndex(0);
         if (cmbVehicleKeyType.getItemCount() > 0) cmbVehicleKeyType.setSelectedIndex(0);
@@ -729,34 +1252,69 @@ public class SearchWindow extends JFrame {
         if (row >= 0) {
             // Convert view row index to model row index
             int modelRow = tblResults.convertRowIndexToModel(row);
+            String imagePath = tableModel.getImagePath(modelRow);
             
-            // Get the ID of the selected record
-            int id = (int) tableModel.getValueAt(modelRow, 0);
-            
-            try {
-                Duplicator duplicator = Duplicator.findById(id);
-                if (duplicator != null) {
-                    String imagePath = duplicator.getImagePath();
-                    if (imagePath != null && !imagePath.trim().isEmpty()) {
-                        try {
-                            File imageFile = new File(imagePath);
-                            if (imageFile.exists()) {
-                                BufferedImage img = ImageIO.read(imageFile);
-                                Image scaledImg = img.getScaledInstance(IMAGE_PREVIEW_SIZE, IMAGE_PREVIEW_SIZE, Image.SCALE_SMOOTH);
-                                lblImagePreview.setIcon(new ImageIcon(scaledImg));
-                                lblImagePreview.setText("");
-                                return;
-                            }
-                        } catch (Exception e) {
-                            // Fall through and display placeholder image
-                        }
+            QueryExecutor.cancel(previewTask);
+            QueryExecutor.cancel(prefetchTask);
+            BufferedImage cached = ThumbnailCache.getCached(imagePath, IMAGE_PREVIEW_SIZE);
+            if (cached != null) {
+                showPreview(cached);
+                prefetchNeighbours(row);
+                return;
+            }
+            if (imagePath == null || imagePath.trim().isEmpty()) {
+                showRandomPlaceholderImage();
+                prefetchNeighbours(row);
+                return;
+            }
+            previewTask = QueryExecutor.submit(task -> ThumbnailCache.load(imagePath, IMAGE_PREVIEW_SIZE), thumbnail -> {
+                showPreview(thumbnail);
+                prefetchNeighbours(row);
+            }, e -> showRandomPlaceholderImage());
+        }
+    }
+    
+    private void showPreview(Image thumbnail) {
+        if (thumbnail == null) {
+            showRandomPlaceholderImage();
+            return;
+        }
+        lblImagePreview.setIcon(new ImageIcon(thumbnail));
+        lblImagePreview.setText("");
+    }
+    
+    /**
+     * Load the thumbnails of the rows around the selection in the background,
+     * so arrowing up or down shows them straight from memory.
+     */
+    private void prefetchNeighbours(int viewRow) {
+        List<String> paths = new ArrayList<>();
+        for (int offset = 1; offset <= PREFETCH_ROWS; offset++) {
+            for (int neighbour : new int[] {viewRow + offset, viewRow - offset}) {
+                if (neighbour >= 0 && neighbour < tblResults.getRowCount()) {
+                    String path = tableModel.getImagePath(tblResults.convertRowIndexToModel(neighbour));
+                    if (path != null && ThumbnailCache.getCached(path, IMAGE_PREVIEW_SIZE) == null) {
+                        paths.add(path);
                     }
                 }
-                showRandomPlaceholderImage();
-            } catch (Exception e) {
-                showRandomPlaceholderImage();
             }
         }
+        if (paths.isEmpty()) {
+            return;
+        }
+        prefetchTask = QueryExecutor.submitBackground(task -> {
+            for (String path : paths) {
+                if (task.isCancelled()) {
+                    break;
+                }
+                try {
+                    ThumbnailCache.load(path, IMAGE_PREVIEW_SIZE);
+                } catch (IOException e) {
+                    // Shown as a placeholder when selected
+                }
+            }
+            return null;
+        }, ignored -> { }, e -> { });
     }
 
     private void showRandomPlaceholderImage() {
@@ -1059,4 +1617,102 @@ public class SearchWindow extends JFrame {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Rows returned for one search text, field, match mode and set of filters.
+     */
+    private static final class SearchResult {
+        private final String field;
+        private final String matchMode;
+        private final String filterKey;
+        private final boolean keyed;
+        private final String text;
+        private final List<Object[]> rows;
+
+        private SearchResult(String field, String matchMode, String filterKey, boolean keyed,
+                             String text, List<Object[]> rows) {
+            this.field = field;
+            this.matchMode = matchMode;
+            this.filterKey = filterKey;
+            this.keyed = keyed;
+            this.text = text;
+            this.rows = rows;
+        }
+
+        /**
+         * True if every match for the new text is among these rows: same field,
+         * mode and filters, and the text only narrows the previous one. All
+         * Fields is never refined because its match spans six columns, nor
+         * Similar, whose matches are ranked rather than narrowed.
+         */
+        private boolean covers(String field, String matchMode, String filterKey, boolean keyed, String text) {
+            if ("All Fields".equals(field) || MATCH_SIMILAR.equals(matchMode) || !field.equals(this.field)
+                    || !matchMode.equals(this.matchMode) || !filterKey.equals(this.filterKey)) {
+                return false;
+            }
+            if (this.text.isEmpty()) {
+                return true;
+            }
+            if (keyed != this.keyed) {
+                return false;
+            }
+            String previous = this.text.toLowerCase(Locale.ROOT);
+            String current = text.toLowerCase(Locale.ROOT);
+            switch (matchMode) {
+                case MATCH_STARTS_WITH:
+                    return current.startsWith(previous);
+                case MATCH_ENDS_WITH:
+                    return current.endsWith(previous);
+                default:
+                    return current.contains(previous);
+            }
+        }
+
+        /**
+         * Keep the rows that match the narrower text.
+         */
+        private SearchResult refine(String text, boolean keyed) {
+            int column = searchColumnIndex(field);
+            Predicate<String> matcher = textMatcher(text, matchMode, keyed);
+            List<Object[]> matches = new ArrayList<>();
+            for (Object[] row : rows) {
+                Object value = row[column];
+                if (value != null && matcher.test(value.toString())) {
+                    matches.add(row);
+                }
+            }
+            return new SearchResult(field, matchMode, filterKey, keyed, text, matches);
+        }
+    }
+
+    /**
+     * One search statement: an optional condition on the search text, the
+     * shared filters, and the query to try next if this one fails (or finds
+     * nothing, when fallbackWhenEmpty is set).
+     */
+    private static final class SearchQuery {
+        private final String sql;
+        private final List<Object> params;
+        private final SearchQuery fallback;
+        private final boolean fallbackWhenEmpty;
+
+        private SearchQuery(String textCondition, List<?> textParams, CharSequence filters,
+                            List<Object> filterParams, SearchQuery fallback) {
+            this(textCondition, textParams, filters, filterParams, fallback, false);
+        }
+
+        private SearchQuery(String textCondition, List<?> textParams, CharSequence filters,
+                            List<Object> filterParams, SearchQuery fallback, boolean fallbackWhenEmpty) {
+            StringBuilder sb = new StringBuilder("SELECT * FROM duplicator WHERE 1=1 ");
+            if (textCondition != null) {
+                sb.append("AND ").append(textCondition).append(' ');
+            }
+            sb.append(filters).append("ORDER BY duplicator_id DESC");
+            this.sql = sb.toString();
+            this.params = new ArrayList<>(textParams);
+            this.params.addAll(filterParams);
+            this.fallback = fallback;
+            this.fallbackWhenEmpty = fallback != null && fallbackWhenEmpty;
+        }
+    }
+}
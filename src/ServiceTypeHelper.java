@@ -7,6 +7,11 @@ import java.util.Locale;
  * from remarks text. Service type is currently stored implicitly via well-known
  * remark suffixes, so this helper makes the behaviour consistent across UI
  * components.
+ *
+ * For filtering, the database derives the same values into the indexed
+ * service_type (a {@link ServiceType} name) and payment_mode columns; see
+ * schema version 6 in {@link SchemaMigrator}. Changing a keyword here needs a
+ * matching migration.
  */
 public final class ServiceTypeHelper {
     private ServiceTypeHelper() {}
@@ -84,6 +89,9 @@ public final class ServiceTypeHelper {
 
     // Payment helpers: currently only a UPI flag is supported and stored as a simple " - UPI" suffix
     public static final String UPI_KEYWORD = "upi";
+    // payment_mode column values
+    public static final String PAYMENT_UPI = "UPI";
+    public static final String PAYMENT_CASH = "CASH";
     public static boolean hasUpi(String remarks) {
         if (remarks == null || remarks.trim().isEmpty()) return false;
         return remarks.toLowerCase(Locale.ROOT).contains(UPI_KEYWORD);
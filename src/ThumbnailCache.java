@@ -0,0 +1,204 @@
+package src;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import javax.imageio.ImageIO;
+
+/**
+ * Square thumbnails of record photos. When a record is saved with a photo,
+ * {@link #generate} decodes it once and writes a {@link #THUMBNAIL_SIZE}
+ * thumbnail to {@link AppConfig#getThumbnailsDirectory()}; the viewers
+ * (search preview, record details, edit dialog) then read that small file
+ * and scale it to their own size instead of decoding the full-size JPEG.
+ * Photos saved before thumbnails existed get theirs the first time they are
+ * shown.
+ *
+ * Stored thumbnails are named after the photo's path and modification time,
+ * so a replaced photo never shows a stale thumbnail; the previous one is
+ * deleted when the new one is generated. Scaled copies are also kept in
+ * memory (least recently used dropped first).
+ *
+ * {@link #load} and {@link #generate} read files and belong on a background
+ * thread; {@link #getCached} only looks in memory and is fine on the EDT.
+ */
+public final class ThumbnailCache {
+    /** Edge of the stored thumbnails; the largest size a viewer shows. */
+    static final int THUMBNAIL_SIZE = 300;
+    private static final int MAX_ENTRIES = 200;
+
+    private static final Map<String, BufferedImage> MEMORY = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BufferedImage> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private ThumbnailCache() {
+    }
+
+    /**
+     * Thumbnail already held in memory, or null.
+     */
+    public static BufferedImage getCached(String imagePath, int size) {
+        File photo = photo(imagePath);
+        if (photo == null) {
+            return null;
+        }
+        synchronized (MEMORY) {
+            return MEMORY.get(key(photo, size));
+        }
+    }
+
+    /**
+     * Thumbnail of the photo at size x size, from memory or scaled from the
+     * stored thumbnail (generated first if missing), or null if the photo
+     * does not exist or cannot be decoded.
+     */
+    public static BufferedImage load(String imagePath, int size) throws IOException {
+        File photo = photo(imagePath);
+        if (photo == null) {
+            return null;
+        }
+        String key = key(photo, size);
+        synchronized (MEMORY) {
+            BufferedImage cached = MEMORY.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        File stored = storedFile(photo);
+        BufferedImage thumbnail = stored.isFile() ? ImageIO.read(stored) : null;
+        if (thumbnail == null) {
+            thumbnail = generate(photo);
+            if (thumbnail == null) {
+                return null;
+            }
+        }
+        if (size != THUMBNAIL_SIZE) {
+            thumbnail = scale(thumbnail, size);
+        }
+        synchronized (MEMORY) {
+            MEMORY.put(key, thumbnail);
+        }
+        return thumbnail;
+    }
+
+    /**
+     * Write the stored thumbnail of a photo that was just saved or replaced.
+     * Returns the thumbnail, or null if the photo cannot be read.
+     */
+    public static BufferedImage generate(String imagePath) throws IOException {
+        File photo = photo(imagePath);
+        return photo != null ? generate(photo) : null;
+    }
+
+    private static BufferedImage generate(File photo) throws IOException {
+        BufferedImage source = ImageIO.read(photo);
+        if (source == null) {
+            return null;
+        }
+        BufferedImage thumbnail = scale(source, THUMBNAIL_SIZE);
+        File stored = storedFile(photo);
+        store(stored, thumbnail);
+        deleteOlderThumbnails(photo, stored);
+        synchronized (MEMORY) {
+            MEMORY.put(key(photo, THUMBNAIL_SIZE), thumbnail);
+        }
+        return thumbnail;
+    }
+
+    /**
+     * Scale to size x size, halving first while the image is more than twice
+     * as large so the bilinear steps keep the detail a single step would drop.
+     */
+    static BufferedImage scale(BufferedImage source, int size) {
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(size, width / 2);
+            height = Math.max(size, height / 2);
+            if (width < size * 2 && height < size * 2) {
+                width = size;
+                height = size;
+            }
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2 = step.createGraphics();
+            g2.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g2.drawImage(current, 0, 0, width, height, null);
+            g2.dispose();
+            current = step;
+        } while (width != size || height != size);
+        return current;
+    }
+
+    // Written to a temporary file and moved into place, so a reader never sees half a thumbnail
+    private static void store(File stored, BufferedImage thumbnail) {
+        try {
+            File dir = stored.getParentFile();
+            if (!dir.exists() && !dir.mkdirs()) {
+                return;
+            }
+            File temp = File.createTempFile("thumb", ".tmp", dir);
+            try {
+                ImageIO.write(thumbnail, "jpg", temp);
+                Files.move(temp.toPath(), stored.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                temp.delete();
+            }
+        } catch (IOException e) {
+            // The memory copy still serves this session
+            System.err.println("Could not write thumbnail: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Stored thumbnail file of the photo in its current version.
+     */
+    private static File storedFile(File photo) {
+        return new File(AppConfig.getThumbnailsDirectory(), namePrefix(photo) + photo.lastModified() + ".jpg");
+    }
+
+    // Thumbnails of earlier versions of the same photo
+    private static void deleteOlderThumbnails(File photo, File current) {
+        String prefix = namePrefix(photo);
+        File[] older = current.getParentFile().listFiles(
+            (dir, name) -> name.startsWith(prefix) && !name.equals(current.getName()));
+        if (older != null) {
+            for (File file : older) {
+                file.delete();
+            }
+        }
+    }
+
+    private static String namePrefix(File photo) {
+        return UUID.nameUUIDFromBytes(photo.getAbsolutePath().getBytes(StandardCharsets.UTF_8)) + "_";
+    }
+
+    /**
+     * The photo file, or null if there is none at this path.
+     */
+    private static File photo(String imagePath) {
+        if (imagePath == null || imagePath.trim().isEmpty()) {
+            return null;
+        }
+        File file = new File(imagePath);
+        return file.isFile() ? file : null;
+    }
+
+    private static String key(File photo, int size) {
+        return photo.getAbsolutePath() + "|" + photo.lastModified() + "|" + size;
+    }
+}
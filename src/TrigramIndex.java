@@ -0,0 +1,178 @@
+package src;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Trigram index over short strings (customer names) for typo-tolerant lookup.
+ * Each word is lower-cased and padded the way PostgreSQL's pg_trgm does it
+ * ("  jo", " joh", "joh", "ohn", "hn "), and matches are ranked by the Jaccard
+ * similarity of the two trigram sets, so "Abdul Rehman" still finds
+ * "Abdul Rahman" and "Sreejit" finds "Sreejith".
+ *
+ * Postings are kept per distinct (lower-cased) value rather than per row:
+ * regular customers share one entry, and a search scores each distinct name
+ * once. Rows are the caller's row positions. Not thread-safe.
+ */
+final class TrigramIndex {
+    /** Similarity below which a row is not reported (pg_trgm's default). */
+    static final double MIN_SIMILARITY = 0.3;
+
+    private final Map<String, Integer> valueIds = new HashMap<>();
+    private final List<IntList> rowsByValue = new ArrayList<>();
+    private final IntList trigramCounts = new IntList();
+    private final Map<Long, IntList> postings = new HashMap<>();
+    private int[] rowValues = new int[0];
+
+    /**
+     * Index the row under a new value (null removes it).
+     */
+    void set(int row, String value) {
+        if (row >= rowValues.length) {
+            int oldLength = rowValues.length;
+            rowValues = Arrays.copyOf(rowValues, Math.max(row + 1, oldLength * 2));
+            Arrays.fill(rowValues, oldLength, rowValues.length, -1);
+        }
+        if (rowValues[row] >= 0) {
+            rowsByValue.get(rowValues[row]).remove(row);
+        }
+        rowValues[row] = -1;
+        if (value == null) {
+            return;
+        }
+
+        String key = value.toLowerCase(Locale.ROOT);
+        Integer id = valueIds.get(key);
+        if (id == null) {
+            id = rowsByValue.size();
+            valueIds.put(key, id);
+            rowsByValue.add(new IntList());
+            long[] trigrams = trigrams(key);
+            trigramCounts.add(trigrams.length);
+            for (long trigram : trigrams) {
+                postings.computeIfAbsent(trigram, t -> new IntList()).add(id);
+            }
+        }
+        rowsByValue.get(id).addSorted(row);
+        rowValues[row] = id;
+    }
+
+    /**
+     * Up to limit rows allowed by the filter whose value is at least
+     * {@link #MIN_SIMILARITY} similar to the query, best match first; rows
+     * with the same value are returned newest (highest row) first.
+     */
+    int[] search(String query, BitSet allowed, int limit) {
+        long[] queryTrigrams = trigrams(query);
+        if (queryTrigrams.length == 0 || limit <= 0) {
+            return new int[0];
+        }
+
+        // Count shared trigrams per distinct value, remembering which were touched
+        int[] shared = new int[rowsByValue.size()];
+        IntList touched = new IntList();
+        for (long trigram : queryTrigrams) {
+            IntList ids = postings.get(trigram);
+            if (ids == null) {
+                continue;
+            }
+            for (int i = 0; i < ids.size; i++) {
+                if (shared[ids.items[i]]++ == 0) {
+                    touched.add(ids.items[i]);
+                }
+            }
+        }
+
+        // Jaccard similarity from the counts: shared / (query + value - shared)
+        List<double[]> candidates = new ArrayList<>();
+        for (int i = 0; i < touched.size; i++) {
+            int id = touched.items[i];
+            double score = (double) shared[id] / (queryTrigrams.length + trigramCounts.items[id] - shared[id]);
+            if (score >= MIN_SIMILARITY) {
+                candidates.add(new double[] {score, id});
+            }
+        }
+        candidates.sort((a, b) -> Double.compare(b[0], a[0]));
+
+        IntList result = new IntList();
+        for (double[] candidate : candidates) {
+            IntList rows = rowsByValue.get((int) candidate[1]);
+            for (int i = rows.size - 1; i >= 0 && result.size < limit; i--) {
+                if (allowed.get(rows.items[i])) {
+                    result.add(rows.items[i]);
+                }
+            }
+            if (result.size >= limit) {
+                break;
+            }
+        }
+        return Arrays.copyOf(result.items, result.size);
+    }
+
+    /**
+     * Sorted, distinct trigrams of the value, each packed into a long.
+     */
+    private static long[] trigrams(String value) {
+        if (value == null) {
+            return new long[0];
+        }
+        String[] words = value.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+");
+        long[] result = new long[0];
+        int count = 0;
+        for (String word : words) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            String padded = "  " + word + " ";
+            result = Arrays.copyOf(result, count + padded.length() - 2);
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                result[count++] = ((long) padded.charAt(i) << 32) | ((long) padded.charAt(i + 1) << 16) | padded.charAt(i + 2);
+            }
+        }
+        Arrays.sort(result, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (distinct == 0 || result[distinct - 1] != result[i]) {
+                result[distinct++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, distinct);
+    }
+
+    /** Growable int array; row lists are kept sorted. */
+    private static final class IntList {
+        private int[] items = new int[4];
+        private int size;
+
+        private void add(int value) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = value;
+        }
+
+        private void addSorted(int value) {
+            int index = Arrays.binarySearch(items, 0, size, value);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            add(value);
+            System.arraycopy(items, index, items, index + 1, size - index - 1);
+            items[index] = value;
+        }
+
+        private void remove(int value) {
+            int index = Arrays.binarySearch(items, 0, size, value);
+            if (index >= 0) {
+                System.arraycopy(items, index + 1, items, index, size - index - 1);
+                size--;
+            }
+        }
+    }
+}